@@ -0,0 +1,83 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.benchmarks.bootstrap.encrypt;
+
+import java.security.KeyPairGenerator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.bootstrap.encrypt.EnvironmentDecryptApplicationInitializer;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.security.rsa.crypto.RsaSecretEncryptor;
+
+/**
+ * Cost of decrypting 500 <code>{cipher}</code> values encrypted with a 2048 bit RSA key
+ * on startup, with and without parallel decryption.
+ *
+ * @author Venil Noronha
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EnvironmentDecryptBenchmark {
+
+	private static final int CIPHERS = 500;
+
+	@Param({ "false", "true" })
+	public boolean parallel;
+
+	private EnvironmentDecryptApplicationInitializer initializer;
+
+	private MutablePropertySources sources = new MutablePropertySources();
+
+	@Setup
+	public void start() throws Exception {
+		KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+		generator.initialize(2048);
+		RsaSecretEncryptor encryptor = new RsaSecretEncryptor(generator.generateKeyPair());
+		Map<String, Object> map = new LinkedHashMap<String, Object>();
+		for (int i = 0; i < CIPHERS; i++) {
+			map.put("secret" + i, "{cipher}" + encryptor.encrypt("value" + i));
+		}
+		this.sources.addFirst(new MapPropertySource("application", map));
+		this.initializer = new EnvironmentDecryptApplicationInitializer(encryptor);
+		this.initializer.setParallel(this.parallel);
+	}
+
+	@Benchmark
+	public Map<String, Object> decrypt() {
+		return this.initializer.decrypt(this.sources);
+	}
+
+}
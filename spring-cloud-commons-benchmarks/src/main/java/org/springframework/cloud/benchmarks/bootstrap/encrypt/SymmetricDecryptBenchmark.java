@@ -0,0 +1,100 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.benchmarks.bootstrap.encrypt;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.context.encrypt.AesMode;
+import org.springframework.cloud.context.encrypt.EncryptorFactory;
+import org.springframework.security.crypto.encrypt.Encryptors;
+import org.springframework.security.crypto.encrypt.TextEncryptor;
+
+/**
+ * Latency of decrypting one property value with a symmetric key.
+ * <code>textPerEncryptor</code> creates the encryptor each time, like
+ * {@link EncryptorFactory} used to (so it includes the PBKDF2 key derivation),
+ * <code>text</code> re-uses an {@link Encryptors#text(CharSequence, CharSequence)}
+ * instance, and <code>cbc</code> and <code>gcm</code> use the (cached) encryptors from
+ * {@link EncryptorFactory}.
+ *
+ * @author Venil Noronha
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SymmetricDecryptBenchmark {
+
+	private static final String KEY = "my-secret-key";
+
+	private static final String SALT = "deadbeef";
+
+	private static final String VALUE = "jdbc:mysql://localhost:3306/test?password=secret";
+
+	private TextEncryptor text;
+
+	private TextEncryptor cbc;
+
+	private TextEncryptor gcm;
+
+	private String cbcCipher;
+
+	private String gcmCipher;
+
+	@Setup
+	public void start() {
+		this.text = Encryptors.text(KEY, SALT);
+		this.cbc = new EncryptorFactory().create(KEY, AesMode.CBC);
+		this.gcm = new EncryptorFactory().create(KEY, AesMode.GCM);
+		this.cbcCipher = this.text.encrypt(VALUE);
+		this.gcmCipher = this.gcm.encrypt(VALUE);
+	}
+
+	@Benchmark
+	public String textPerEncryptor() {
+		return Encryptors.text(KEY, SALT).decrypt(this.cbcCipher);
+	}
+
+	@Benchmark
+	public String text() {
+		return this.text.decrypt(this.cbcCipher);
+	}
+
+	@Benchmark
+	public String cbc() {
+		return this.cbc.decrypt(this.cbcCipher);
+	}
+
+	@Benchmark
+	public String gcm() {
+		return this.gcm.decrypt(this.gcmCipher);
+	}
+
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.benchmarks.client.loadbalancer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.loadbalancer.DiscoveryLoadBalancerClient;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerInterceptor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Overhead of a call through a <code>@LoadBalanced</code> {@link RestTemplate}, with a
+ * request factory that does not go to the network. Run with the GC profiler (
+ * <code>-prof gc</code>, or the {@link #main(String[]) main method} here) and compare
+ * <code>gc.alloc.rate.norm</code> with the plain template to see the bytes per request
+ * that the load balancer adds.
+ *
+ * @author Venil Noronha
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoadBalancedRestTemplateBenchmark {
+
+	private RestTemplate plain;
+
+	private RestTemplate loadBalanced;
+
+	@Setup
+	public void start() {
+		final List<ServiceInstance> instances = Collections.<ServiceInstance> singletonList(
+				new DefaultServiceInstance("service", "localhost", 8080, false));
+		DiscoveryClient discoveryClient = new DiscoveryClient() {
+
+			@Override
+			public String description() {
+				return "Static";
+			}
+
+			@Override
+			public ServiceInstance getLocalServiceInstance() {
+				return null;
+			}
+
+			@Override
+			public List<ServiceInstance> getInstances(String serviceId) {
+				return instances;
+			}
+
+			@Override
+			public List<String> getServices() {
+				return Collections.singletonList("service");
+			}
+
+		};
+		this.plain = new RestTemplate(new StubRequestFactory());
+		this.loadBalanced = new RestTemplate(new StubRequestFactory());
+		this.loadBalanced.setInterceptors(
+				Collections.<ClientHttpRequestInterceptor> singletonList(
+						new LoadBalancerInterceptor(
+								new DiscoveryLoadBalancerClient(discoveryClient))));
+	}
+
+	@Benchmark
+	public Object plain() {
+		return this.plain.execute("http://localhost:8080/path", HttpMethod.GET, null,
+				null);
+	}
+
+	@Benchmark
+	public Object loadBalanced() {
+		return this.loadBalanced.execute("http://service/path", HttpMethod.GET, null,
+				null);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(LoadBalancedRestTemplateBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class).build()).run();
+	}
+
+	private static class StubRequestFactory implements ClientHttpRequestFactory {
+
+		@Override
+		public ClientHttpRequest createRequest(final URI uri, final HttpMethod method) {
+			return new ClientHttpRequest() {
+
+				private final HttpHeaders headers = new HttpHeaders();
+
+				@Override
+				public HttpMethod getMethod() {
+					return method;
+				}
+
+				@Override
+				public URI getURI() {
+					return uri;
+				}
+
+				@Override
+				public HttpHeaders getHeaders() {
+					return this.headers;
+				}
+
+				@Override
+				public OutputStream getBody() {
+					return new ByteArrayOutputStream();
+				}
+
+				@Override
+				public ClientHttpResponse execute() {
+					return new StubResponse();
+				}
+
+			};
+		}
+
+	}
+
+	private static class StubResponse implements ClientHttpResponse {
+
+		private final HttpHeaders headers = new HttpHeaders();
+
+		@Override
+		public HttpStatus getStatusCode() {
+			return HttpStatus.OK;
+		}
+
+		@Override
+		public int getRawStatusCode() {
+			return HttpStatus.OK.value();
+		}
+
+		@Override
+		public String getStatusText() {
+			return HttpStatus.OK.getReasonPhrase();
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return this.headers;
+		}
+
+		@Override
+		public InputStream getBody() {
+			return new ByteArrayInputStream(new byte[0]);
+		}
+
+		@Override
+		public void close() {
+		}
+
+	}
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.cloud.benchmarks.client.loadbalancer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerStats;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerStrategy;
+import org.springframework.cloud.client.loadbalancer.PowerOfTwoChoicesLoadBalancerStrategy;
+import org.springframework.cloud.client.loadbalancer.RandomLoadBalancerStrategy;
+import org.springframework.cloud.client.loadbalancer.RoundRobinLoadBalancerStrategy;
+import org.springframework.cloud.client.loadbalancer.WeightedLoadBalancerStrategy;
+
+/**
+ * Cost of {@link LoadBalancerStrategy#choose(String, List)} when 8 threads choose
+ * instances of the same service at the same time. The round robin strategy shares a
+ * counter between the threads, the others only read shared state.
+ *
+ * @author Venil Noronha
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class LoadBalancerStrategyBenchmark {
+
+	@Param({ "roundRobin", "random", "powerOfTwoChoices", "weighted" })
+	public String strategy;
+
+	@Param({ "3", "100" })
+	public int size;
+
+	private LoadBalancerStrategy loadBalancer;
+
+	private List<ServiceInstance> instances;
+
+	@Setup
+	public void start() {
+		List<ServiceInstance> instances = new ArrayList<>();
+		for (int i = 0; i < this.size; i++) {
+			DefaultServiceInstance instance = new DefaultServiceInstance("service",
+					"host" + i, 8080, false);
+			instance.getMetadata().put("weight", String.valueOf(i % 3 + 1));
+			instances.add(instance);
+		}
+		this.instances = Collections.unmodifiableList(instances);
+		switch (this.strategy) {
+		case "random":
+			this.loadBalancer = new RandomLoadBalancerStrategy();
+			break;
+		case "powerOfTwoChoices":
+			this.loadBalancer = new PowerOfTwoChoicesLoadBalancerStrategy(
+					new LoadBalancerStats());
+			break;
+		case "weighted":
+			this.loadBalancer = new WeightedLoadBalancerStrategy();
+			break;
+		default:
+			this.loadBalancer = new RoundRobinLoadBalancerStrategy();
+		}
+	}
+
+	@Benchmark
+	public ServiceInstance choose() {
+		return this.loadBalancer.choose("service", this.instances);
+	}
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.benchmarks.context.refresh;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.context.refresh.ContextRefresher;
+import org.springframework.cloud.context.scope.refresh.RefreshScope;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.CompositePropertySource;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.MutablePropertySources;
+
+/**
+ * Cost of computing the changed keys in {@link ContextRefresher#refresh()} with 50,000
+ * keys spread over 20 property sources (in a composite, like the ones that come from a
+ * config server). The re-load of the external configuration is replaced by swapping
+ * between two pre-built versions of the first <code>changed</code> sources, each of
+ * which differs from the other in one key.
+ *
+ * @author Venil Noronha
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContextRefresherBenchmark {
+
+	private static final int SOURCES = 20;
+
+	private static final int KEYS = 50000;
+
+	@Param({ "0", "1", "20" })
+	public int changed;
+
+	private AnnotationConfigApplicationContext context;
+
+	private ContextRefresher refresher;
+
+	@Setup
+	public void start() {
+		this.context = new AnnotationConfigApplicationContext();
+		CompositePropertySource[] composites = new CompositePropertySource[] {
+				new CompositePropertySource("configService"),
+				new CompositePropertySource("configService") };
+		for (int i = 0; i < SOURCES; i++) {
+			MapPropertySource source = source(i, 0);
+			composites[0].addPropertySource(source);
+			// Unchanged sources are the same instances in both versions
+			composites[1].addPropertySource(i < this.changed ? source(i, 1) : source);
+		}
+		this.context.getEnvironment().getPropertySources().addFirst(composites[0]);
+		this.context.refresh();
+		RefreshScope scope = new RefreshScope();
+		scope.setApplicationContext(this.context);
+		this.refresher = new SwappingContextRefresher(this.context, scope, composites);
+	}
+
+	@TearDown
+	public void close() {
+		if (this.context != null) {
+			this.context.close();
+		}
+	}
+
+	@Benchmark
+	public Set<String> refresh() {
+		return this.refresher.refresh();
+	}
+
+	private MapPropertySource source(int index, int version) {
+		Map<String, Object> map = new HashMap<String, Object>();
+		int size = KEYS / SOURCES;
+		for (int i = 0; i < size; i++) {
+			map.put("source" + index + ".key" + i, "value" + i);
+		}
+		map.put("source" + index + ".key0", "version" + version);
+		return new MapPropertySource("source" + index, map);
+	}
+
+	private static class SwappingContextRefresher extends ContextRefresher {
+
+		private final ConfigurableApplicationContext context;
+
+		private final CompositePropertySource[] versions;
+
+		private int current = 0;
+
+		SwappingContextRefresher(ConfigurableApplicationContext context,
+				RefreshScope scope, CompositePropertySource[] versions) {
+			super(context, scope);
+			this.context = context;
+			this.versions = versions;
+		}
+
+		@Override
+		protected void addConfigFilesToEnvironment() {
+			MutablePropertySources sources = this.context.getEnvironment()
+					.getPropertySources();
+			this.current = 1 - this.current;
+			sources.replace("configService", this.versions[this.current]);
+		}
+
+	}
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.benchmarks.context.scope;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.cloud.context.scope.GenericScope;
+import org.springframework.cloud.context.scope.StandardScopeCache;
+import org.springframework.cloud.context.scope.thread.ThreadLocalScopeCache;
+
+/**
+ * Allocation rate of {@link GenericScope#get(String, ObjectFactory)} once the bean is
+ * cached. Run with the GC profiler (<code>-prof gc</code>, or the {@link #main(String[])
+ * main method} here) and look at <code>gc.alloc.rate.norm</code>, which should be 0
+ * bytes per operation for both cache implementations.
+ *
+ * @author Venil Noronha
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GenericScopeGetBenchmark {
+
+	@Param({ "standard", "thread" })
+	public String cache;
+
+	private GenericScope scope;
+
+	private ObjectFactory<?> factory = new ObjectFactory<Object>() {
+		@Override
+		public Object getObject() {
+			return new Object();
+		}
+	};
+
+	@Setup
+	public void start() {
+		this.scope = new GenericScope();
+		this.scope.setProxyTargetClass(false);
+		if ("thread".equals(this.cache)) {
+			this.scope.setScopeCache(new ThreadLocalScopeCache());
+		}
+		else {
+			this.scope.setScopeCache(new StandardScopeCache());
+		}
+	}
+
+	@Benchmark
+	public Object cached() {
+		return this.scope.get("bean", this.factory);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(GenericScopeGetBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class).build()).run();
+	}
+
+}
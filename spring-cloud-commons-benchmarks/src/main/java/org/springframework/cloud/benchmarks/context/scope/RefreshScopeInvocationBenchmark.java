@@ -0,0 +1,207 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.benchmarks.context.scope;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.PropertyPlaceholderAutoConfiguration;
+import org.springframework.cloud.autoconfigure.RefreshAutoConfiguration;
+import org.springframework.cloud.context.config.StripedBeanLifecycleDecorator;
+import org.springframework.cloud.context.scope.GenericScope;
+import org.springframework.cloud.context.scope.refresh.RefreshScope;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.MapPropertySource;
+
+/**
+ * Measures the cost of calling a <code>@RefreshScope</code> bean, layer by layer: the
+ * raw target, the disposal lock proxy added by the
+ * {@link org.springframework.cloud.context.config.StandardBeanLifecycleDecorator}, a
+ * bare {@link GenericScope#get(String, ObjectFactory)} and finally the full scoped
+ * proxy that application code sees. Each layer is run at 1, 8 and 64 threads, both on
+ * the instance created at startup and on the one re-created after
+ * {@link RefreshScope#refreshAll()}, and with the standard (read-write lock) and striped
+ * disposal guards.
+ *
+ * @author Venil Noronha
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public abstract class RefreshScopeInvocationBenchmark {
+
+	private static final String TARGET_NAME = GenericScope.SCOPED_TARGET_PREFIX
+			+ "service";
+
+	@Param({ "false", "true" })
+	public boolean refreshed;
+
+	@Param({ "standard", "striped" })
+	public String lifecycle;
+
+	private AnnotationConfigApplicationContext context;
+
+	private RefreshScope scope;
+
+	private ObjectFactory<?> factory = new ObjectFactory<Object>() {
+		@Override
+		public Object getObject() {
+			throw new IllegalStateException(
+					"Bean should already be cached in the scope: " + TARGET_NAME);
+		}
+	};
+
+	private ExampleService proxy;
+
+	private ExampleService decorated;
+
+	private ExampleService target;
+
+	@Setup
+	public void start() throws Exception {
+		this.context = new AnnotationConfigApplicationContext();
+		this.context.getEnvironment().getPropertySources()
+				.addFirst(new MapPropertySource("benchmark", Collections
+						.<String, Object>singletonMap("benchmark.lifecycle", this.lifecycle)));
+		this.context.register(TestConfiguration.class);
+		this.context.refresh();
+		this.scope = this.context.getBean(RefreshScope.class);
+		this.proxy = this.context.getBean("service", ExampleService.class);
+		this.proxy.getMessage();
+		if (this.refreshed) {
+			this.scope.refreshAll();
+			this.proxy.getMessage();
+		}
+		this.decorated = (ExampleService) this.scope.get(TARGET_NAME, this.factory);
+		if (this.decorated instanceof Advised) {
+			this.target = (ExampleService) ((Advised) this.decorated).getTargetSource()
+					.getTarget();
+		}
+		else {
+			this.target = this.decorated;
+		}
+	}
+
+	@TearDown
+	public void close() {
+		if (this.context != null) {
+			this.context.close();
+		}
+	}
+
+	@Benchmark
+	public String target() {
+		return this.target.getMessage();
+	}
+
+	@Benchmark
+	public String disposalLockProxy() {
+		return this.decorated.getMessage();
+	}
+
+	@Benchmark
+	public Object scopeGet() {
+		return this.scope.get(TARGET_NAME, this.factory);
+	}
+
+	@Benchmark
+	public String scopedProxy() {
+		return this.proxy.getMessage();
+	}
+
+	@Threads(1)
+	public static class SingleThread extends RefreshScopeInvocationBenchmark {
+	}
+
+	@Threads(8)
+	public static class EightThreads extends RefreshScopeInvocationBenchmark {
+	}
+
+	@Threads(64)
+	public static class SixtyFourThreads extends RefreshScopeInvocationBenchmark {
+	}
+
+	public static class ExampleService implements DisposableBean {
+
+		private String message;
+
+		public ExampleService() {
+		}
+
+		public ExampleService(String message) {
+			this.message = message;
+		}
+
+		public String getMessage() {
+			return this.message;
+		}
+
+		@Override
+		public void destroy() {
+			this.message = null;
+		}
+
+	}
+
+	@Configuration
+	@Import({ RefreshAutoConfiguration.class,
+			PropertyPlaceholderAutoConfiguration.class })
+	protected static class TestConfiguration {
+
+		@Bean
+		public static RefreshScope refreshScope(Environment environment) {
+			RefreshScope scope = new RefreshScope();
+			if ("striped".equals(environment.getProperty("benchmark.lifecycle"))) {
+				scope.setBeanLifecycleManager(new StripedBeanLifecycleDecorator(true));
+			}
+			return scope;
+		}
+
+		@Bean
+		@org.springframework.cloud.context.config.annotation.RefreshScope
+		public ExampleService service(@Value("${message:Hello scope!}") String message) {
+			return new ExampleService(message);
+		}
+
+	}
+
+}
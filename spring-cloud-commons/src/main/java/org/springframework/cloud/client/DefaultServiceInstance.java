@@ -20,8 +20,12 @@ import java.net.URI;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
 /**
  * Default implementation of {@link ServiceInstance}.
@@ -30,6 +34,8 @@ import lombok.RequiredArgsConstructor;
  */
 @Data
 @RequiredArgsConstructor
+@EqualsAndHashCode(exclude = "uri")
+@ToString(exclude = "uri")
 public class DefaultServiceInstance implements ServiceInstance {
 
 	private final String serviceId;
@@ -42,6 +48,10 @@ public class DefaultServiceInstance implements ServiceInstance {
 
 	private final Map<String, String> metadata;
 
+	// Created on first use (the fields it depends on are final)
+	@Setter(AccessLevel.NONE)
+	private volatile URI uri;
+
 	public DefaultServiceInstance(String serviceId, String host, int port,
 			boolean secure) {
 		this(serviceId, host, port, secure, new LinkedHashMap<String, String>());
@@ -49,7 +59,12 @@ public class DefaultServiceInstance implements ServiceInstance {
 
 	@Override
 	public URI getUri() {
-		return getUri(this);
+		URI uri = this.uri;
+		if (uri == null) {
+			uri = getUri(this);
+			this.uri = uri;
+		}
+		return uri;
 	}
 
 	@Override
@@ -64,8 +79,6 @@ public class DefaultServiceInstance implements ServiceInstance {
 	 */
 	public static URI getUri(ServiceInstance instance) {
 		String scheme = (instance.isSecure()) ? "https" : "http";
-		String uri = String.format("%s://%s:%s", scheme, instance.getHost(),
-				instance.getPort());
-		return URI.create(uri);
+		return URI.create(scheme + "://" + instance.getHost() + ":" + instance.getPort());
 	}
 }
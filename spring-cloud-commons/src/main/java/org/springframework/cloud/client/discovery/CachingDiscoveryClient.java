@@ -0,0 +1,304 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.client.discovery;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.event.InstanceChangeEvent;
+import org.springframework.cloud.client.discovery.event.InstanceChangeMonitor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import lombok.extern.apachecommons.CommonsLog;
+
+/**
+ * {@link DiscoveryClient} that keeps an immutable snapshot of the instances of each
+ * service that it is asked for, so that {@link #getInstances(String)} is a map lookup
+ * (apart from the first call for each service). The snapshots are refreshed in the
+ * background after a time to live (with some random jitter, so that the services are
+ * not all refreshed at the same time). If a refresh fails the last snapshot is kept, so
+ * a discovery server that is temporarily unavailable does not make the services
+ * unavailable. Services that are not used for a few refresh periods are dropped.
+ *
+ * <p>
+ * Optionally (with {@link #setHealthStatus(String, String)}) instances whose health
+ * status in their metadata is not the healthy one are left out of the snapshots, unless
+ * that would leave none (then all are kept, since an instance that might be unhealthy is
+ * better than none at all).
+ * </p>
+ *
+ * <p>
+ * When it has an {@link ApplicationEventPublisher} (e.g. as a bean), an
+ * {@link InstanceChangeEvent} is published whenever the instances it loads for a service
+ * are different from the last ones.
+ * </p>
+ *
+ * @author Venil Noronha
+ */
+@CommonsLog
+public class CachingDiscoveryClient
+		implements DiscoveryClient, DisposableBean, ApplicationEventPublisherAware {
+
+	/**
+	 * Services that are not used for this many refresh periods are dropped.
+	 */
+	private static final int IDLE_PERIODS = 5;
+
+	private final DiscoveryClient delegate;
+
+	private final ScheduledExecutorService scheduler;
+
+	private final boolean shutdown;
+
+	private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+	private final Random random = new Random();
+
+	private final InstanceChangeMonitor monitor = new InstanceChangeMonitor();
+
+	private ApplicationEventPublisher publisher;
+
+	private long timeToLive = 30000;
+
+	private double jitter = 0.2;
+
+	private String statusKey;
+
+	private String healthyStatus;
+
+	public CachingDiscoveryClient(DiscoveryClient delegate) {
+		this(delegate, scheduler(), true);
+	}
+
+	/**
+	 * @param delegate the discovery client to get instances from
+	 * @param scheduler the scheduler for the background refreshes (it is not shut down by
+	 * this client)
+	 */
+	public CachingDiscoveryClient(DiscoveryClient delegate,
+			ScheduledExecutorService scheduler) {
+		this(delegate, scheduler, false);
+	}
+
+	private CachingDiscoveryClient(DiscoveryClient delegate,
+			ScheduledExecutorService scheduler, boolean shutdown) {
+		this.delegate = delegate;
+		this.scheduler = scheduler;
+		this.shutdown = shutdown;
+	}
+
+	private static ScheduledExecutorService scheduler() {
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(
+				"discovery-cache-");
+		threadFactory.setDaemon(true);
+		return new ScheduledThreadPoolExecutor(1, threadFactory);
+	}
+
+	/**
+	 * @param timeToLive the time after which the instances of a service are refreshed in
+	 * milliseconds (default 30000)
+	 */
+	public void setTimeToLive(long timeToLive) {
+		this.timeToLive = timeToLive;
+	}
+
+	/**
+	 * @param jitter the maximum random variation in the time to live, as a fraction of it
+	 * (default 0.2)
+	 */
+	public void setJitter(double jitter) {
+		this.jitter = jitter;
+	}
+
+	/**
+	 * Leave out the instances that have a value for the metadata key provided that is not
+	 * the healthy status (ignoring case), unless there are no others. Instances without
+	 * the key are kept. Default null (no filtering, since the metadata is specific to the
+	 * discovery client).
+	 *
+	 * @param key the metadata key for the health status of an instance (e.g. "status")
+	 * @param healthy the status of a healthy instance (e.g. "UP")
+	 */
+	public void setHealthStatus(String key, String healthy) {
+		this.statusKey = key;
+		this.healthyStatus = healthy;
+	}
+
+	@Override
+	public void setApplicationEventPublisher(ApplicationEventPublisher publisher) {
+		this.publisher = publisher;
+	}
+
+	@Override
+	public String description() {
+		return "Caching " + this.delegate.description();
+	}
+
+	@Override
+	public ServiceInstance getLocalServiceInstance() {
+		return this.delegate.getLocalServiceInstance();
+	}
+
+	@Override
+	public List<ServiceInstance> getInstances(String serviceId) {
+		Entry entry = this.entries.get(serviceId);
+		if (entry == null) {
+			entry = new Entry(serviceId, load(serviceId));
+			Entry existing = this.entries.putIfAbsent(serviceId, entry);
+			if (existing != null) {
+				entry = existing;
+			}
+			else {
+				schedule(entry);
+			}
+		}
+		if (!entry.used) {
+			entry.used = true;
+		}
+		return entry.instances;
+	}
+
+	@Override
+	public List<String> getServices() {
+		return this.delegate.getServices();
+	}
+
+	/**
+	 * Drop the snapshot for a service, so that the next call for it goes to the
+	 * underlying discovery client.
+	 *
+	 * @param serviceId the service id
+	 */
+	public void evict(String serviceId) {
+		// The snapshot in the monitor is kept, so the next load only reports changes
+		this.entries.remove(serviceId);
+	}
+
+	@Override
+	public void destroy() {
+		this.entries.clear();
+		if (this.shutdown) {
+			this.scheduler.shutdownNow();
+		}
+	}
+
+	private List<ServiceInstance> load(String serviceId) {
+		List<ServiceInstance> instances = Collections.unmodifiableList(
+				new ArrayList<>(healthy(this.delegate.getInstances(serviceId))));
+		if (this.publisher != null) {
+			InstanceChangeEvent event = this.monitor.update(this, serviceId, instances);
+			if (event != null) {
+				this.publisher.publishEvent(event);
+			}
+		}
+		return instances;
+	}
+
+	private List<ServiceInstance> healthy(List<ServiceInstance> instances) {
+		String key = this.statusKey;
+		if (key == null) {
+			return instances;
+		}
+		List<ServiceInstance> healthy = new ArrayList<>(instances.size());
+		for (ServiceInstance instance : instances) {
+			Map<String, String> metadata = instance.getMetadata();
+			String status = metadata == null ? null : metadata.get(key);
+			if (status == null || status.equalsIgnoreCase(this.healthyStatus)) {
+				healthy.add(instance);
+			}
+		}
+		return healthy.isEmpty() ? instances : healthy;
+	}
+
+	private void schedule(final Entry entry) {
+		long delay = (long) (this.timeToLive
+				* (1 + this.jitter * (2 * this.random.nextDouble() - 1)));
+		try {
+			this.scheduler.schedule(new Runnable() {
+				@Override
+				public void run() {
+					refresh(entry);
+				}
+			}, Math.max(delay, 1), TimeUnit.MILLISECONDS);
+		}
+		catch (RejectedExecutionException e) {
+			// Shutting down
+			drop(entry);
+		}
+	}
+
+	private void refresh(Entry entry) {
+		if (this.entries.get(entry.serviceId) != entry) {
+			// Evicted
+			return;
+		}
+		if (entry.used) {
+			entry.used = false;
+			entry.idle = 0;
+		}
+		else if (++entry.idle >= IDLE_PERIODS) {
+			drop(entry);
+			return;
+		}
+		try {
+			entry.instances = load(entry.serviceId);
+		}
+		catch (Exception e) {
+			log.warn("Cannot refresh instances of " + entry.serviceId
+					+ " (keeping the last known ones): " + e);
+		}
+		schedule(entry);
+	}
+
+	private void drop(Entry entry) {
+		if (this.entries.remove(entry.serviceId, entry)) {
+			// Otherwise the monitor keeps a snapshot of every service ever seen
+			this.monitor.reset(entry.serviceId);
+		}
+	}
+
+	private static class Entry {
+
+		private final String serviceId;
+
+		private volatile List<ServiceInstance> instances;
+
+		private volatile boolean used;
+
+		private int idle;
+
+		Entry(String serviceId, List<ServiceInstance> instances) {
+			this.serviceId = serviceId;
+			this.instances = instances;
+		}
+
+	}
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.client.discovery.event;
+
+import java.util.List;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Event a DiscoveryClient implementation can broadcast when the instances of a service
+ * change. Unlike a {@link HeartbeatEvent} it says what changed, so listeners can update
+ * their own view of the service (e.g. a routing table) incrementally instead of fetching
+ * all the instances again. Instances are identified by host and port.
+ *
+ * @author Venil Noronha
+ * @see InstanceChangeMonitor
+ */
+@SuppressWarnings("serial")
+public class InstanceChangeEvent extends ApplicationEvent {
+
+	private final String serviceId;
+
+	private final List<ServiceInstance> added;
+
+	private final List<ServiceInstance> removed;
+
+	private final List<ServiceInstance> changed;
+
+	/**
+	 * Create a new {@link InstanceChangeEvent}.
+	 *
+	 * @param source the component that published the event (never {@code null})
+	 * @param serviceId the service whose instances changed
+	 * @param added the instances that are new
+	 * @param removed the instances that are gone
+	 * @param changed the new values of instances that are still there but have
+	 * different metadata or security
+	 */
+	public InstanceChangeEvent(Object source, String serviceId,
+			List<ServiceInstance> added, List<ServiceInstance> removed,
+			List<ServiceInstance> changed) {
+		super(source);
+		this.serviceId = serviceId;
+		this.added = added;
+		this.removed = removed;
+		this.changed = changed;
+	}
+
+	public String getServiceId() {
+		return this.serviceId;
+	}
+
+	public List<ServiceInstance> getAdded() {
+		return this.added;
+	}
+
+	public List<ServiceInstance> getRemoved() {
+		return this.removed;
+	}
+
+	public List<ServiceInstance> getChanged() {
+		return this.changed;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " [serviceId=" + this.serviceId
+				+ ", added=" + this.added.size() + ", removed=" + this.removed.size()
+				+ ", changed=" + this.changed.size() + "]";
+	}
+
+}
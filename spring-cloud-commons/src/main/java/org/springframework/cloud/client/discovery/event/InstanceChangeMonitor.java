@@ -0,0 +1,106 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.client.discovery.event;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * Helper class for DiscoveryClient implementations that poll for the instances of a
+ * service, providing a convenient way to compute an {@link InstanceChangeEvent} from
+ * successive snapshots. The first snapshot of a service is reported as all added.
+ *
+ * @author Venil Noronha
+ */
+public class InstanceChangeMonitor {
+
+	private final Map<String, Map<String, ServiceInstance>> snapshots = new HashMap<>();
+
+	/**
+	 * @param source the source of the event (e.g. the discovery client)
+	 * @param serviceId the service id
+	 * @param instances the latest instances of the service
+	 * @return an event describing the changes since the last update for the same
+	 * service, or null if nothing changed
+	 */
+	public synchronized InstanceChangeEvent update(Object source, String serviceId,
+			List<ServiceInstance> instances) {
+		Map<String, ServiceInstance> last = this.snapshots.get(serviceId);
+		if (last == null) {
+			last = Collections.emptyMap();
+		}
+		Map<String, ServiceInstance> current = new LinkedHashMap<>();
+		List<ServiceInstance> added = new ArrayList<>();
+		List<ServiceInstance> changed = new ArrayList<>();
+		for (ServiceInstance instance : instances) {
+			String key = key(instance);
+			if (current.containsKey(key)) {
+				// Listed twice, only the first one counts
+				continue;
+			}
+			current.put(key, instance);
+			ServiceInstance previous = last.get(key);
+			if (previous == null) {
+				added.add(instance);
+			}
+			else if (!same(previous, instance)) {
+				changed.add(instance);
+			}
+		}
+		List<ServiceInstance> removed = new ArrayList<>();
+		for (Map.Entry<String, ServiceInstance> entry : last.entrySet()) {
+			if (!current.containsKey(entry.getKey())) {
+				removed.add(entry.getValue());
+			}
+		}
+		this.snapshots.put(serviceId, current);
+		if (added.isEmpty() && removed.isEmpty() && changed.isEmpty()) {
+			return null;
+		}
+		return new InstanceChangeEvent(source, serviceId,
+				Collections.unmodifiableList(added),
+				Collections.unmodifiableList(removed),
+				Collections.unmodifiableList(changed));
+	}
+
+	/**
+	 * Forget the last snapshot of a service, so the next update reports all its
+	 * instances as added.
+	 *
+	 * @param serviceId the service id
+	 */
+	public synchronized void reset(String serviceId) {
+		this.snapshots.remove(serviceId);
+	}
+
+	private String key(ServiceInstance instance) {
+		return instance.getHost() + ":" + instance.getPort();
+	}
+
+	private boolean same(ServiceInstance previous, ServiceInstance instance) {
+		return previous.isSecure() == instance.isSecure() && ObjectUtils
+				.nullSafeEquals(previous.getMetadata(), instance.getMetadata());
+	}
+
+}
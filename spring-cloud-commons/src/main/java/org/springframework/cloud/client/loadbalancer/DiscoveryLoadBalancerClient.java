@@ -0,0 +1,143 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.client.loadbalancer;
+
+import java.net.URI;
+import java.util.List;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.discovery.event.InstanceChangeEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * {@link LoadBalancerClient} that chooses from the instances that a
+ * {@link DiscoveryClient} returns, using a {@link LoadBalancerStrategy}. The requests
+ * that it executes (in flight, latency and errors) are recorded in its
+ * {@link LoadBalancerStats}. It asks the discovery
+ * client for the instances on every call, so it is best used with one that does not go
+ * to a remote server every time (e.g. a {@code CachingDiscoveryClient}). As a bean it
+ * drops the statistics of instances that an {@link InstanceChangeEvent} reports as
+ * removed.
+ *
+ * @author Venil Noronha
+ */
+public class DiscoveryLoadBalancerClient
+		implements LoadBalancerClient, ApplicationListener<InstanceChangeEvent> {
+
+	private final DiscoveryClient discoveryClient;
+
+	private final LoadBalancerStrategy strategy;
+
+	private final LoadBalancerStats stats;
+
+	public DiscoveryLoadBalancerClient(DiscoveryClient discoveryClient) {
+		this(discoveryClient, new RoundRobinLoadBalancerStrategy());
+	}
+
+	public DiscoveryLoadBalancerClient(DiscoveryClient discoveryClient,
+			LoadBalancerStrategy strategy) {
+		this(discoveryClient, strategy, new LoadBalancerStats());
+	}
+
+	/**
+	 * @param discoveryClient the source of the instances
+	 * @param strategy the strategy to choose an instance with
+	 * @param stats the statistics to record requests in (should be the same as the ones
+	 * that the strategy uses, if any)
+	 */
+	public DiscoveryLoadBalancerClient(DiscoveryClient discoveryClient,
+			LoadBalancerStrategy strategy, LoadBalancerStats stats) {
+		this.discoveryClient = discoveryClient;
+		this.strategy = strategy;
+		this.stats = stats;
+	}
+
+	public LoadBalancerStats getStats() {
+		return this.stats;
+	}
+
+	@Override
+	public void onApplicationEvent(InstanceChangeEvent event) {
+		for (ServiceInstance instance : event.getRemoved()) {
+			this.stats.remove(instance);
+		}
+	}
+
+	@Override
+	public ServiceInstance choose(String serviceId) {
+		List<ServiceInstance> instances = this.discoveryClient.getInstances(serviceId);
+		if (instances == null || instances.isEmpty()) {
+			return null;
+		}
+		return this.strategy.choose(serviceId, instances);
+	}
+
+	@Override
+	public <T> T execute(String serviceId, LoadBalancerRequest<T> request) {
+		ServiceInstance instance = choose(serviceId);
+		if (instance == null) {
+			throw new IllegalStateException("No instances available for " + serviceId);
+		}
+		InstanceStats stats = this.stats.getStats(instance);
+		long start = stats.start();
+		boolean failed = true;
+		try {
+			T result = request.apply(instance);
+			failed = false;
+			return result;
+		}
+		catch (Exception ex) {
+			ReflectionUtils.rethrowRuntimeException(ex);
+		}
+		finally {
+			stats.finish(start, failed);
+		}
+		return null;
+	}
+
+	@Override
+	public URI reconstructURI(ServiceInstance instance, URI original) {
+		String scheme = instance.isSecure() ? "https" : original.getScheme();
+		String host = instance.getHost();
+		StringBuilder uri = new StringBuilder(scheme).append("://");
+		if (original.getRawUserInfo() != null) {
+			uri.append(original.getRawUserInfo()).append('@');
+		}
+		if (host.indexOf(':') >= 0 && !host.startsWith("[")) {
+			// IPv6 literal
+			uri.append('[').append(host).append(']');
+		}
+		else {
+			uri.append(host);
+		}
+		uri.append(':').append(instance.getPort());
+		// The raw (still encoded) parts, so nothing is decoded or encoded twice
+		if (original.getRawPath() != null) {
+			uri.append(original.getRawPath());
+		}
+		if (original.getRawQuery() != null) {
+			uri.append('?').append(original.getRawQuery());
+		}
+		if (original.getRawFragment() != null) {
+			uri.append('#').append(original.getRawFragment());
+		}
+		return URI.create(uri.toString());
+	}
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.client.loadbalancer;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistics of the requests sent to a service instance: the number in flight, the
+ * totals, and exponentially weighted moving averages of the latency and error rate (so
+ * recent requests count most). Recording a request does not allocate, and the counters
+ * are striped so that many threads can record requests at the same time.
+ *
+ * @author Venil Noronha
+ * @see LoadBalancerStats
+ */
+public class InstanceStats {
+
+	/**
+	 * Weight of the latest request in the moving averages.
+	 */
+	private static final double ALPHA = 0.2;
+
+	private static final long UNKNOWN = Double.doubleToRawLongBits(Double.NaN);
+
+	private final StripedCounter inFlight = new StripedCounter();
+
+	private final StripedCounter requests = new StripedCounter();
+
+	private final StripedCounter errors = new StripedCounter();
+
+	private final AtomicLong latency = new AtomicLong(UNKNOWN);
+
+	private final AtomicLong errorRate = new AtomicLong(UNKNOWN);
+
+	/**
+	 * Record the start of a request.
+	 *
+	 * @return the start time to pass to {@link #finish(long, boolean)}
+	 */
+	public long start() {
+		this.inFlight.increment();
+		return System.nanoTime();
+	}
+
+	/**
+	 * Record the end of a request that was {@link #start() started}.
+	 *
+	 * @param startTime the value returned by {@link #start()}
+	 * @param failed whether the request failed
+	 */
+	public void finish(long startTime, boolean failed) {
+		long elapsed = System.nanoTime() - startTime;
+		this.inFlight.decrement();
+		this.requests.increment();
+		if (failed) {
+			this.errors.increment();
+		}
+		update(this.latency, elapsed);
+		update(this.errorRate, failed ? 1 : 0);
+	}
+
+	/**
+	 * @return the number of requests that have started and not finished yet
+	 */
+	public long getInFlight() {
+		return this.inFlight.sum();
+	}
+
+	/**
+	 * @return the number of requests that have finished
+	 */
+	public long getRequests() {
+		return this.requests.sum();
+	}
+
+	/**
+	 * @return the number of requests that have failed
+	 */
+	public long getErrors() {
+		return this.errors.sum();
+	}
+
+	/**
+	 * @return the moving average of the latency in milliseconds, or NaN if no request
+	 * has finished yet
+	 */
+	public double getLatency() {
+		return Double.longBitsToDouble(this.latency.get()) / 1000000;
+	}
+
+	/**
+	 * @return the moving average of the error rate (between 0 and 1), or NaN if no
+	 * request has finished yet
+	 */
+	public double getErrorRate() {
+		return Double.longBitsToDouble(this.errorRate.get());
+	}
+
+	private static void update(AtomicLong average, double sample) {
+		while (true) {
+			long bits = average.get();
+			double current = Double.longBitsToDouble(bits);
+			double next = bits == UNKNOWN ? sample : current + ALPHA * (sample - current);
+			if (average.compareAndSet(bits, Double.doubleToRawLongBits(next))) {
+				return;
+			}
+		}
+	}
+
+}
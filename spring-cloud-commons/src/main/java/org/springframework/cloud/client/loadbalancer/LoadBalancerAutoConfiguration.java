@@ -22,9 +22,11 @@ import java.util.List;
 
 import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnSingleCandidate;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.ClientHttpRequestInterceptor;
@@ -81,4 +83,20 @@ public class LoadBalancerAutoConfiguration {
 		return new LoadBalancerInterceptor(loadBalancerClient);
 	}
 
+	@Configuration
+	@ConditionalOnClass(PublicMetrics.class)
+	@ConditionalOnSingleCandidate(LoadBalancerStats.class)
+	protected static class LoadBalancerStatsConfiguration {
+
+		// The client is often declared as a LoadBalancerClient (so its type is only
+		// known once it is created), but stats that are a bean can be matched
+		@Bean
+		@ConditionalOnMissingBean
+		public LoadBalancerStatsMetrics loadBalancerStatsMetrics(
+				LoadBalancerStats stats) {
+			return new LoadBalancerStatsMetrics(stats);
+		}
+
+	}
+
 }
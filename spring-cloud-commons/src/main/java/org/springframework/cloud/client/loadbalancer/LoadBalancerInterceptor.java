@@ -61,6 +61,9 @@ public class LoadBalancerInterceptor implements ClientHttpRequestInterceptor {
 
 		private final ServiceInstance instance;
 
+		// Reconstructed on first use (RestTemplate asks for it several times)
+		private URI uri;
+
 		public ServiceRequestWrapper(HttpRequest request, ServiceInstance instance) {
 			super(request);
 			this.instance = instance;
@@ -68,9 +71,11 @@ public class LoadBalancerInterceptor implements ClientHttpRequestInterceptor {
 
 		@Override
 		public URI getURI() {
-			URI uri = LoadBalancerInterceptor.this.loadBalancer.reconstructURI(
-					this.instance, getRequest().getURI());
-			return uri;
+			if (this.uri == null) {
+				this.uri = LoadBalancerInterceptor.this.loadBalancer
+						.reconstructURI(this.instance, getRequest().getURI());
+			}
+			return this.uri;
 		}
 
 	}
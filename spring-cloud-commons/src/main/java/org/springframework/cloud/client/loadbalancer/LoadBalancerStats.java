@@ -0,0 +1,151 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.client.loadbalancer;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.event.InstanceChangeEvent;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * Registry of the {@link InstanceStats statistics} of the service instances that a load
+ * balancer sends requests to, keyed by service id, host and port (so the instances from
+ * successive lookups share their statistics, even if the discovery client creates new
+ * ones each time). Looking up the statistics of an instance does not allocate anything,
+ * unless it is the first time the instance is seen. Instances that are gone are dropped
+ * with {@link #remove(ServiceInstance)} (e.g. when an {@link InstanceChangeEvent}
+ * reports them removed). Load balancer strategies can use the statistics to avoid busy
+ * or slow instances, and they are exposed as metrics by {@link LoadBalancerStatsMetrics}
+ * if the actuator is available.
+ *
+ * @author Venil Noronha
+ */
+public class LoadBalancerStats {
+
+	private final ConcurrentMap<Key, InstanceStats> stats = new ConcurrentHashMap<>();
+
+	/**
+	 * A key per thread to look up the statistics with, so that there is no allocation
+	 * on every request.
+	 */
+	private final ThreadLocal<Key> probes = new ThreadLocal<Key>() {
+		@Override
+		protected Key initialValue() {
+			return new Key();
+		}
+	};
+
+	/**
+	 * @param instance a service instance
+	 * @return the statistics of the instance (never null)
+	 */
+	public InstanceStats getStats(ServiceInstance instance) {
+		Key probe = this.probes.get().set(instance);
+		InstanceStats stats = this.stats.get(probe);
+		if (stats == null) {
+			stats = new InstanceStats();
+			InstanceStats existing = this.stats.putIfAbsent(new Key().set(instance),
+					stats);
+			if (existing != null) {
+				stats = existing;
+			}
+		}
+		probe.clear();
+		return stats;
+	}
+
+	/**
+	 * Drop the statistics of an instance that has gone away.
+	 *
+	 * @param instance a service instance
+	 */
+	public void remove(ServiceInstance instance) {
+		this.stats.remove(new Key().set(instance));
+	}
+
+	/**
+	 * @return the statistics of all the instances keyed by
+	 * <code>[serviceId]:[host]:[port]</code> (a snapshot)
+	 */
+	public Map<String, InstanceStats> getAll() {
+		Map<String, InstanceStats> all = new LinkedHashMap<>();
+		for (Map.Entry<Key, InstanceStats> entry : this.stats.entrySet()) {
+			all.put(entry.getKey().toString(), entry.getValue());
+		}
+		return all;
+	}
+
+	/**
+	 * The service id, host and port of an instance. Mutable so that it can be re-used for
+	 * lookups, but never changed once it is in the map.
+	 */
+	private static final class Key {
+
+		private String serviceId;
+
+		private String host;
+
+		private int port;
+
+		private int hash;
+
+		Key set(ServiceInstance instance) {
+			this.serviceId = instance.getServiceId();
+			this.host = instance.getHost();
+			this.port = instance.getPort();
+			this.hash = 31 * (31 * ObjectUtils.nullSafeHashCode(this.serviceId)
+					+ ObjectUtils.nullSafeHashCode(this.host)) + this.port;
+			return this;
+		}
+
+		void clear() {
+			// Don't hold on to the strings
+			this.serviceId = null;
+			this.host = null;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return this.port == other.port
+					&& ObjectUtils.nullSafeEquals(this.serviceId, other.serviceId)
+					&& ObjectUtils.nullSafeEquals(this.host, other.host);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+
+		@Override
+		public String toString() {
+			return this.serviceId + ":" + this.host + ":" + this.port;
+		}
+
+	}
+
+}
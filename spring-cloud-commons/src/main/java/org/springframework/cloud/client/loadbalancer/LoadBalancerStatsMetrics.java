@@ -0,0 +1,60 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.client.loadbalancer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+
+/**
+ * Exposes the {@link LoadBalancerStats} of a {@link DiscoveryLoadBalancerClient} as
+ * metrics named <code>loadbalancer.[serviceId]:[host]:[port].*</code>. Created
+ * automatically if the stats are a bean.
+ *
+ * @author Venil Noronha
+ *
+ */
+public class LoadBalancerStatsMetrics implements PublicMetrics {
+
+	private final LoadBalancerStats stats;
+
+	public LoadBalancerStatsMetrics(LoadBalancerStats stats) {
+		this.stats = stats;
+	}
+
+	@Override
+	public Collection<Metric<?>> metrics() {
+		Collection<Metric<?>> metrics = new ArrayList<Metric<?>>();
+		for (Map.Entry<String, InstanceStats> entry : this.stats.getAll().entrySet()) {
+			InstanceStats stats = entry.getValue();
+			String prefix = "loadbalancer." + entry.getKey() + ".";
+			metrics.add(new Metric<Long>(prefix + "inflight", stats.getInFlight()));
+			metrics.add(new Metric<Long>(prefix + "requests", stats.getRequests()));
+			metrics.add(new Metric<Long>(prefix + "errors", stats.getErrors()));
+			if (stats.getRequests() > 0) {
+				metrics.add(new Metric<Double>(prefix + "latency", stats.getLatency()));
+				metrics.add(
+						new Metric<Double>(prefix + "errorRate", stats.getErrorRate()));
+			}
+		}
+		return metrics;
+	}
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.client.loadbalancer;
+
+import java.util.List;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+/**
+ * Strategy used by a {@link DiscoveryLoadBalancerClient} to pick one of the instances of
+ * a service. Implementations are called concurrently for every request, so they should
+ * be thread safe and cheap.
+ *
+ * @author Venil Noronha
+ */
+public interface LoadBalancerStrategy {
+
+	/**
+	 * Choose one of the instances of a service.
+	 *
+	 * @param serviceId the service id
+	 * @param instances the available instances (never empty)
+	 * @return the chosen instance
+	 */
+	ServiceInstance choose(String serviceId, List<ServiceInstance> instances);
+
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.client.loadbalancer;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+/**
+ * {@link LoadBalancerStrategy} that picks two instances at random and takes the one with
+ * the lower load. The load is the number of requests in flight (plus one), multiplied by
+ * the average latency when it is known for both, so slow instances get fewer requests.
+ * This sends most requests to the least loaded instances without the herd behaviour of
+ * always taking the least loaded one, and without having to look at all the instances.
+ *
+ * @author Venil Noronha
+ */
+public class PowerOfTwoChoicesLoadBalancerStrategy implements LoadBalancerStrategy {
+
+	private final LoadBalancerStats stats;
+
+	/**
+	 * @param stats the statistics of the instances (the ones that the load balancer
+	 * client records requests in)
+	 */
+	public PowerOfTwoChoicesLoadBalancerStrategy(LoadBalancerStats stats) {
+		this.stats = stats;
+	}
+
+	@Override
+	public ServiceInstance choose(String serviceId, List<ServiceInstance> instances) {
+		int size = instances.size();
+		if (size == 1) {
+			return instances.get(0);
+		}
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		int first = random.nextInt(size);
+		int second = random.nextInt(size - 1);
+		if (second >= first) {
+			second++;
+		}
+		ServiceInstance one = instances.get(first);
+		ServiceInstance other = instances.get(second);
+		InstanceStats oneStats = this.stats.getStats(one);
+		InstanceStats otherStats = this.stats.getStats(other);
+		double oneLoad = oneStats.getInFlight() + 1;
+		double otherLoad = otherStats.getInFlight() + 1;
+		double oneLatency = oneStats.getLatency();
+		double otherLatency = otherStats.getLatency();
+		if (!Double.isNaN(oneLatency) && !Double.isNaN(otherLatency)) {
+			oneLoad *= oneLatency;
+			otherLoad *= otherLatency;
+		}
+		return otherLoad < oneLoad ? other : one;
+	}
+
+}
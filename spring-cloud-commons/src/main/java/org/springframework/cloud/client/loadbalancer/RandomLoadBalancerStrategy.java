@@ -0,0 +1,37 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.client.loadbalancer;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+/**
+ * {@link LoadBalancerStrategy} that picks an instance at random. It has no shared state,
+ * so it does not slow down when many threads use it.
+ *
+ * @author Venil Noronha
+ */
+public class RandomLoadBalancerStrategy implements LoadBalancerStrategy {
+
+	@Override
+	public ServiceInstance choose(String serviceId, List<ServiceInstance> instances) {
+		return instances.get(ThreadLocalRandom.current().nextInt(instances.size()));
+	}
+
+}
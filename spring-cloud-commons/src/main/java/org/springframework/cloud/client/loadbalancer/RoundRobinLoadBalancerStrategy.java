@@ -0,0 +1,51 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.client.loadbalancer;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+/**
+ * {@link LoadBalancerStrategy} that takes the instances of each service in turn, using
+ * an atomic counter per service.
+ *
+ * @author Venil Noronha
+ */
+public class RoundRobinLoadBalancerStrategy implements LoadBalancerStrategy {
+
+	private final ConcurrentMap<String, AtomicInteger> positions = new ConcurrentHashMap<>();
+
+	@Override
+	public ServiceInstance choose(String serviceId, List<ServiceInstance> instances) {
+		AtomicInteger position = this.positions.get(serviceId);
+		if (position == null) {
+			position = new AtomicInteger();
+			AtomicInteger existing = this.positions.putIfAbsent(serviceId, position);
+			if (existing != null) {
+				position = existing;
+			}
+		}
+		// Mask the sign bit so that the index stays positive when the counter overflows
+		int index = (position.getAndIncrement() & Integer.MAX_VALUE) % instances.size();
+		return instances.get(index);
+	}
+
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.client.loadbalancer;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A counter that many threads can update at the same time without contending on a
+ * single memory location: each thread updates one of a few cells (picked by thread id),
+ * and the value is the sum of the cells. The cells are spaced a cache line apart.
+ *
+ * @author Venil Noronha
+ */
+class StripedCounter {
+
+	private static final int STRIPES = stripes();
+
+	// 8 longs is 64 bytes (a cache line on most processors)
+	private static final int SPACING = 8;
+
+	private static final int MASK = STRIPES - 1;
+
+	private final AtomicLongArray cells = new AtomicLongArray(STRIPES * SPACING);
+
+	private static int stripes() {
+		int processors = Math.min(Runtime.getRuntime().availableProcessors(), 16);
+		return Integer.highestOneBit(processors * 2 - 1);
+	}
+
+	public void add(long delta) {
+		this.cells.addAndGet(index(), delta);
+	}
+
+	public void increment() {
+		add(1);
+	}
+
+	public void decrement() {
+		add(-1);
+	}
+
+	public long sum() {
+		long sum = 0;
+		for (int i = 0; i < STRIPES; i++) {
+			sum += this.cells.get(i * SPACING);
+		}
+		return sum;
+	}
+
+	private int index() {
+		long id = Thread.currentThread().getId();
+		return ((int) (id ^ (id >>> 32)) & MASK) * SPACING;
+	}
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.client.loadbalancer;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+/**
+ * {@link LoadBalancerStrategy} that picks an instance at random, in proportion to a
+ * weight in its metadata (key "weight" by default). Instances without a (valid) weight
+ * have weight 1, and instances with weight 0 are only used if all of them have weight 0.
+ * The weights are worked out once per list of instances, so with a discovery client that
+ * returns the same list until it changes (like the {@code CachingDiscoveryClient}) a
+ * choice is a random number and a binary search.
+ *
+ * @author Venil Noronha
+ */
+public class WeightedLoadBalancerStrategy implements LoadBalancerStrategy {
+
+	private final ConcurrentMap<String, Weights> weights = new ConcurrentHashMap<>();
+
+	private String weightKey = "weight";
+
+	/**
+	 * @param weightKey the metadata key of the weight of an instance (default "weight")
+	 */
+	public void setWeightKey(String weightKey) {
+		this.weightKey = weightKey;
+	}
+
+	@Override
+	public ServiceInstance choose(String serviceId, List<ServiceInstance> instances) {
+		Weights weights = this.weights.get(serviceId);
+		if (weights == null || weights.instances != instances) {
+			weights = new Weights(instances, this.weightKey);
+			// Last one wins, they are all the same
+			this.weights.put(serviceId, weights);
+		}
+		if (weights.total == 0) {
+			return instances.get(ThreadLocalRandom.current().nextInt(instances.size()));
+		}
+		long target = ThreadLocalRandom.current().nextLong(weights.total);
+		long[] cumulative = weights.cumulative;
+		int low = 0;
+		int high = cumulative.length - 1;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (cumulative[middle] > target) {
+				high = middle;
+			}
+			else {
+				low = middle + 1;
+			}
+		}
+		return instances.get(low);
+	}
+
+	private static class Weights {
+
+		private final List<ServiceInstance> instances;
+
+		private final long[] cumulative;
+
+		private final long total;
+
+		Weights(List<ServiceInstance> instances, String key) {
+			this.instances = instances;
+			this.cumulative = new long[instances.size()];
+			long total = 0;
+			for (int i = 0; i < this.cumulative.length; i++) {
+				total += weight(instances.get(i), key);
+				this.cumulative[i] = total;
+			}
+			this.total = total;
+		}
+
+		private static int weight(ServiceInstance instance, String key) {
+			String value = instance.getMetadata() == null ? null
+					: instance.getMetadata().get(key);
+			if (value == null) {
+				return 1;
+			}
+			try {
+				return Math.max(Integer.parseInt(value.trim()), 0);
+			}
+			catch (NumberFormatException e) {
+				return 1;
+			}
+		}
+
+	}
+
+}
@@ -17,8 +17,11 @@
 package org.springframework.cloud.commons.util;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.beans.factory.BeanClassLoaderAware;
 import org.springframework.context.EnvironmentAware;
@@ -29,6 +32,7 @@ import org.springframework.core.env.Environment;
 import org.springframework.core.io.support.SpringFactoriesLoader;
 import org.springframework.core.type.AnnotationMetadata;
 import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentReferenceHashMap;
 
 import lombok.extern.apachecommons.CommonsLog;
 
@@ -43,6 +47,13 @@ import lombok.extern.apachecommons.CommonsLog;
 public abstract class SpringFactoryImportSelector<T>
 		implements DeferredImportSelector, BeanClassLoaderAware, EnvironmentAware {
 
+	/**
+	 * Factory names by class loader and annotation, so that spring.factories is only read
+	 * once for each (e.g. when several application contexts are started in the same
+	 * JVM).
+	 */
+	private static final Map<ClassLoader, Map<Class<?>, List<String>>> factoryNames = new ConcurrentReferenceHashMap<>();
+
 	private ClassLoader beanClassLoader;
 
 	private Class<T> annotationClass;
@@ -66,9 +77,7 @@ public abstract class SpringFactoryImportSelector<T>
 		Assert.notNull(attributes, "No " + getSimpleName() + " attributes found. Is "
 				+ metadata.getClassName() + " annotated with @" + getSimpleName() + "?");
 
-		// Find all possible auto configuration classes, filtering duplicates
-		List<String> factories = new ArrayList<>(new LinkedHashSet<>(SpringFactoriesLoader
-				.loadFactoryNames(this.annotationClass, this.beanClassLoader)));
+		List<String> factories = getFactoryNames();
 
 		if (factories.isEmpty() && !hasDefaultFactory()) {
 			throw new IllegalStateException("Annotation @" + getSimpleName()
@@ -85,6 +94,23 @@ public abstract class SpringFactoryImportSelector<T>
 		return factories.toArray(new String[factories.size()]);
 	}
 
+	private List<String> getFactoryNames() {
+		Map<Class<?>, List<String>> cache = factoryNames.get(this.beanClassLoader);
+		if (cache == null) {
+			cache = new ConcurrentHashMap<>();
+			factoryNames.put(this.beanClassLoader, cache);
+		}
+		List<String> factories = cache.get(this.annotationClass);
+		if (factories == null) {
+			// Find all possible auto configuration classes, filtering duplicates
+			factories = Collections.unmodifiableList(new ArrayList<>(
+					new LinkedHashSet<>(SpringFactoriesLoader.loadFactoryNames(
+							this.annotationClass, this.beanClassLoader))));
+			cache.put(this.annotationClass, factories);
+		}
+		return factories;
+	}
+
 	protected boolean hasDefaultFactory() {
 		return false;
 	}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.client;
+
+import java.net.URI;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * @author Venil Noronha
+ */
+public class DefaultServiceInstanceTests {
+
+	@Test
+	public void uriCreatedOnce() {
+		DefaultServiceInstance instance = new DefaultServiceInstance("foo", "example.com",
+				8443, true);
+		assertEquals(URI.create("https://example.com:8443"), instance.getUri());
+		assertSame(instance.getUri(), instance.getUri());
+	}
+
+	@Test
+	public void uriNotPartOfEquality() {
+		DefaultServiceInstance instance = new DefaultServiceInstance("foo", "example.com",
+				8080, false);
+		DefaultServiceInstance other = new DefaultServiceInstance("foo", "example.com",
+				8080, false);
+		instance.getUri();
+		assertEquals(other, instance);
+		assertEquals(other.hashCode(), instance.hashCode());
+		assertEquals(other.toString(), instance.toString());
+	}
+
+}
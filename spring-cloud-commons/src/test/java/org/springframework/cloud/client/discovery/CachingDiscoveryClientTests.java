@@ -0,0 +1,253 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.client.discovery;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.event.InstanceChangeEvent;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * @author Venil Noronha
+ */
+public class CachingDiscoveryClientTests {
+
+	private TestDiscoveryClient delegate = new TestDiscoveryClient();
+
+	private CachingDiscoveryClient client = new CachingDiscoveryClient(this.delegate);
+
+	@After
+	public void close() {
+		this.client.destroy();
+	}
+
+	@Test
+	public void instancesCached() {
+		this.delegate.instances = instances(8080);
+		List<ServiceInstance> first = this.client.getInstances("foo");
+		assertSame(first, this.client.getInstances("foo"));
+		assertEquals(1, this.delegate.calls.get());
+		assertEquals(8080, first.get(0).getPort());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void instancesImmutable() {
+		this.delegate.instances = instances(8080);
+		this.client.getInstances("foo").clear();
+	}
+
+	@Test
+	public void instancesRefreshedInBackground() throws Exception {
+		this.client.setTimeToLive(50);
+		this.client.setJitter(0);
+		this.delegate.instances = instances(8080);
+		assertEquals(8080, this.client.getInstances("foo").get(0).getPort());
+		this.delegate.instances = instances(9090);
+		for (int i = 0; i < 50; i++) {
+			if (this.client.getInstances("foo").get(0).getPort() == 9090) {
+				break;
+			}
+			Thread.sleep(20L);
+		}
+		assertEquals(9090, this.client.getInstances("foo").get(0).getPort());
+	}
+
+	@Test
+	public void staleInstancesServedWhenRefreshFails() throws Exception {
+		this.client.setTimeToLive(20);
+		this.client.setJitter(0);
+		this.delegate.instances = instances(8080);
+		this.client.getInstances("foo");
+		this.delegate.fail = true;
+		int calls = this.delegate.calls.get();
+		for (int i = 0; i < 50 && this.delegate.calls.get() < calls + 2; i++) {
+			Thread.sleep(20L);
+		}
+		assertEquals(8080, this.client.getInstances("foo").get(0).getPort());
+	}
+
+	@Test
+	public void evictedInstancesLoadedAgain() {
+		this.delegate.instances = instances(8080);
+		this.client.getInstances("foo");
+		this.delegate.instances = instances(9090);
+		this.client.evict("foo");
+		assertEquals(9090, this.client.getInstances("foo").get(0).getPort());
+		assertEquals(2, this.delegate.calls.get());
+	}
+
+	@Test
+	public void changesPublished() throws Exception {
+		final List<InstanceChangeEvent> events = new ArrayList<>();
+		this.client.setApplicationEventPublisher(new ApplicationEventPublisher() {
+			@Override
+			public void publishEvent(ApplicationEvent event) {
+				publishEvent((Object) event);
+			}
+
+			@Override
+			public void publishEvent(Object event) {
+				synchronized (events) {
+					events.add((InstanceChangeEvent) event);
+				}
+			}
+		});
+		this.client.setTimeToLive(20);
+		this.client.setJitter(0);
+		this.delegate.instances = instances(8080);
+		this.client.getInstances("foo");
+		this.delegate.instances = instances(9090);
+		for (int i = 0; i < 50; i++) {
+			synchronized (events) {
+				if (events.size() > 1) {
+					break;
+				}
+			}
+			Thread.sleep(20L);
+		}
+		synchronized (events) {
+			assertEquals(2, events.size());
+			assertEquals(8080, events.get(0).getAdded().get(0).getPort());
+			assertEquals(9090, events.get(1).getAdded().get(0).getPort());
+			assertEquals(8080, events.get(1).getRemoved().get(0).getPort());
+		}
+	}
+
+	@Test
+	public void idleServicesForgottenByMonitor() throws Exception {
+		final List<InstanceChangeEvent> events = new ArrayList<>();
+		this.client.setApplicationEventPublisher(new ApplicationEventPublisher() {
+			@Override
+			public void publishEvent(ApplicationEvent event) {
+				publishEvent((Object) event);
+			}
+
+			@Override
+			public void publishEvent(Object event) {
+				synchronized (events) {
+					events.add((InstanceChangeEvent) event);
+				}
+			}
+		});
+		this.client.setTimeToLive(10);
+		this.client.setJitter(0);
+		this.delegate.instances = instances(8080);
+		this.client.getInstances("foo");
+		int calls = this.delegate.calls.get();
+		// Unused, so dropped after a few refresh periods (without loading again)
+		for (int i = 0; i < 50; i++) {
+			Thread.sleep(40L);
+			if (this.delegate.calls.get() == calls) {
+				break;
+			}
+			calls = this.delegate.calls.get();
+		}
+		this.client.getInstances("foo");
+		synchronized (events) {
+			// The same instances, but reported as added because they were forgotten
+			assertEquals(2, events.size());
+			assertEquals(8080, events.get(1).getAdded().get(0).getPort());
+		}
+	}
+
+	@Test
+	public void instancesNotFilteredByDefault() {
+		this.delegate.instances = Arrays.asList(instance(8080, "DOWN"),
+				instance(9090, "UP"));
+		assertEquals(2, this.client.getInstances("foo").size());
+	}
+
+	@Test
+	public void unhealthyInstancesLeftOut() {
+		this.client.setHealthStatus("status", "UP");
+		this.delegate.instances = Arrays.asList(instance(8080, "DOWN"),
+				instance(9090, "UP"), instance(7070, null));
+		List<ServiceInstance> instances = this.client.getInstances("foo");
+		assertEquals(2, instances.size());
+		assertEquals(9090, instances.get(0).getPort());
+		assertEquals(7070, instances.get(1).getPort());
+	}
+
+	@Test
+	public void unhealthyInstancesKeptIfNoOthers() {
+		this.client.setHealthStatus("status", "UP");
+		this.delegate.instances = Arrays.asList(instance(8080, "DOWN"));
+		assertEquals(1, this.client.getInstances("foo").size());
+	}
+
+	private static ServiceInstance instance(int port, String status) {
+		Map<String, String> metadata = new HashMap<>();
+		if (status != null) {
+			metadata.put("status", status);
+		}
+		return new DefaultServiceInstance("foo", "localhost", port, false, metadata);
+	}
+
+	private static List<ServiceInstance> instances(int port) {
+		return Arrays.<ServiceInstance> asList(
+				new DefaultServiceInstance("foo", "localhost", port, false));
+	}
+
+	private static class TestDiscoveryClient implements DiscoveryClient {
+
+		private final AtomicInteger calls = new AtomicInteger();
+
+		private volatile List<ServiceInstance> instances;
+
+		private volatile boolean fail;
+
+		@Override
+		public String description() {
+			return "Test";
+		}
+
+		@Override
+		public ServiceInstance getLocalServiceInstance() {
+			return null;
+		}
+
+		@Override
+		public List<ServiceInstance> getInstances(String serviceId) {
+			this.calls.incrementAndGet();
+			if (this.fail) {
+				throw new IllegalStateException("Planned");
+			}
+			return this.instances;
+		}
+
+		@Override
+		public List<String> getServices() {
+			return Collections.singletonList("foo");
+		}
+
+	}
+
+}
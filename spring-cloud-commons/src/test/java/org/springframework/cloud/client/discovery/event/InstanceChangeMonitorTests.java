@@ -0,0 +1,88 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.client.discovery.event;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * @author Venil Noronha
+ */
+public class InstanceChangeMonitorTests {
+
+	private InstanceChangeMonitor monitor = new InstanceChangeMonitor();
+
+	@Test
+	public void firstSnapshotAllAdded() {
+		InstanceChangeEvent event = this.monitor.update(this, "foo",
+				instances(instance(8080), instance(8081)));
+		assertEquals("foo", event.getServiceId());
+		assertEquals(2, event.getAdded().size());
+		assertEquals(0, event.getRemoved().size());
+		assertEquals(0, event.getChanged().size());
+	}
+
+	@Test
+	public void sameSnapshotNoEvent() {
+		this.monitor.update(this, "foo", instances(instance(8080)));
+		assertNull(this.monitor.update(this, "foo", instances(instance(8080))));
+	}
+
+	@Test
+	public void delta() {
+		this.monitor.update(this, "foo", instances(instance(8080), instance(8081)));
+		DefaultServiceInstance changed = instance(8081);
+		changed.getMetadata().put("zone", "east");
+		InstanceChangeEvent event = this.monitor.update(this, "foo",
+				instances(changed, instance(8082)));
+		assertEquals(8082, event.getAdded().get(0).getPort());
+		assertEquals(8080, event.getRemoved().get(0).getPort());
+		assertEquals("east", event.getChanged().get(0).getMetadata().get("zone"));
+	}
+
+	@Test
+	public void servicesTrackedSeparately() {
+		this.monitor.update(this, "foo", instances(instance(8080)));
+		assertEquals(1, this.monitor.update(this, "bar", instances(instance(8080)))
+				.getAdded().size());
+	}
+
+	@Test
+	public void allRemoved() {
+		this.monitor.update(this, "foo", instances(instance(8080)));
+		InstanceChangeEvent event = this.monitor.update(this, "foo",
+				Collections.<ServiceInstance> emptyList());
+		assertEquals(1, event.getRemoved().size());
+	}
+
+	private static DefaultServiceInstance instance(int port) {
+		return new DefaultServiceInstance("foo", "localhost", port, false);
+	}
+
+	private static List<ServiceInstance> instances(ServiceInstance... instances) {
+		return Arrays.asList(instances);
+	}
+
+}
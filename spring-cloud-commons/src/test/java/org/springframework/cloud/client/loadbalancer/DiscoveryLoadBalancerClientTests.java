@@ -0,0 +1,142 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.client.loadbalancer;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.discovery.event.InstanceChangeEvent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Venil Noronha
+ */
+public class DiscoveryLoadBalancerClientTests {
+
+	private DiscoveryClient discoveryClient = mock(DiscoveryClient.class);
+
+	private DiscoveryLoadBalancerClient client = new DiscoveryLoadBalancerClient(
+			this.discoveryClient);
+
+	private ServiceInstance instance = new DefaultServiceInstance("foo", "example.com",
+			8080, false);
+
+	@Before
+	public void init() {
+		when(this.discoveryClient.getInstances("foo"))
+				.thenReturn(Arrays.asList(this.instance));
+		when(this.discoveryClient.getInstances("bar"))
+				.thenReturn(Collections.<ServiceInstance> emptyList());
+	}
+
+	@Test
+	public void choose() {
+		assertEquals(this.instance, this.client.choose("foo"));
+		assertNull(this.client.choose("bar"));
+	}
+
+	@Test
+	public void executeRecordsInFlight() {
+		Long inFlight = this.client.execute("foo", new LoadBalancerRequest<Long>() {
+			@Override
+			public Long apply(ServiceInstance instance) throws Exception {
+				return DiscoveryLoadBalancerClientTests.this.client.getStats()
+						.getStats(instance).getInFlight();
+			}
+		});
+		assertEquals(1, inFlight.longValue());
+		InstanceStats stats = this.client.getStats().getStats(this.instance);
+		assertEquals(0, stats.getInFlight());
+		assertEquals(1, stats.getRequests());
+		assertEquals(0, stats.getErrors());
+	}
+
+	@Test
+	public void executeRethrows() {
+		try {
+			this.client.execute("foo", new LoadBalancerRequest<Object>() {
+				@Override
+				public Object apply(ServiceInstance instance) throws Exception {
+					throw new IllegalArgumentException("Planned");
+				}
+			});
+			fail("Expected IllegalArgumentException");
+		}
+		catch (IllegalArgumentException e) {
+			// expected
+		}
+		InstanceStats stats = this.client.getStats().getStats(this.instance);
+		assertEquals(0, stats.getInFlight());
+		assertEquals(1, stats.getErrors());
+		assertEquals(1.0, stats.getErrorRate(), 0.0);
+	}
+
+	@Test
+	public void statsSharedByInstancesWithSameAddress() {
+		assertSame(this.client.getStats().getStats(this.instance),
+				this.client.getStats().getStats(
+						new DefaultServiceInstance("foo", "example.com", 8080, true)));
+		assertNotSame(this.client.getStats().getStats(this.instance),
+				this.client.getStats().getStats(
+						new DefaultServiceInstance("bar", "example.com", 8080, false)));
+	}
+
+	@Test
+	public void statsDroppedForRemovedInstances() {
+		InstanceStats stats = this.client.getStats().getStats(this.instance);
+		this.client.onApplicationEvent(new InstanceChangeEvent(this, "foo",
+				Collections.<ServiceInstance> emptyList(), Arrays.asList(this.instance),
+				Collections.<ServiceInstance> emptyList()));
+		assertEquals(0, this.client.getStats().getAll().size());
+		assertNotSame(stats, this.client.getStats().getStats(this.instance));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void executeWithNoInstances() {
+		this.client.execute("bar", new LoadBalancerRequest<Object>() {
+			@Override
+			public Object apply(ServiceInstance instance) throws Exception {
+				return null;
+			}
+		});
+	}
+
+	@Test
+	public void reconstructURI() {
+		assertEquals(URI.create("http://example.com:8080/path%20with/spaces?q=a%26b#top"),
+				this.client.reconstructURI(this.instance,
+						URI.create("http://foo/path%20with/spaces?q=a%26b#top")));
+		assertEquals(URI.create("https://[::1]:8443/"),
+				this.client.reconstructURI(
+						new DefaultServiceInstance("foo", "::1", 8443, true),
+						URI.create("http://foo/")));
+	}
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.client.loadbalancer;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Venil Noronha
+ */
+public class InstanceStatsTests {
+
+	private InstanceStats stats = new InstanceStats();
+
+	@Test
+	public void unknownUntilFirstRequest() {
+		assertTrue(Double.isNaN(this.stats.getLatency()));
+		assertTrue(Double.isNaN(this.stats.getErrorRate()));
+		this.stats.finish(System.nanoTime() - 10000000L, false);
+		assertEquals(10, this.stats.getLatency(), 5);
+		assertEquals(0, this.stats.getErrorRate(), 0);
+	}
+
+	@Test
+	public void movingAverages() {
+		this.stats.finish(System.nanoTime(), false);
+		for (int i = 0; i < 50; i++) {
+			this.stats.finish(System.nanoTime() - 100000000L, true);
+		}
+		assertEquals(100, this.stats.getLatency(), 10);
+		assertEquals(1, this.stats.getErrorRate(), 0.01);
+		assertEquals(51, this.stats.getRequests());
+		assertEquals(50, this.stats.getErrors());
+	}
+
+	@Test
+	public void concurrentRequestsCounted() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		final CountDownLatch latch = new CountDownLatch(4);
+		for (int i = 0; i < 4; i++) {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					for (int j = 0; j < 1000; j++) {
+						InstanceStatsTests.this.stats
+								.finish(InstanceStatsTests.this.stats.start(), j % 10 == 0);
+					}
+					latch.countDown();
+				}
+			});
+		}
+		assertTrue(latch.await(10, TimeUnit.SECONDS));
+		executor.shutdown();
+		assertEquals(0, this.stats.getInFlight());
+		assertEquals(4000, this.stats.getRequests());
+		assertEquals(400, this.stats.getErrors());
+	}
+
+}
@@ -11,6 +11,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.cloud.client.DefaultServiceInstance;
 import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -24,6 +25,7 @@ import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
 
 import lombok.SneakyThrows;
 
@@ -72,6 +74,24 @@ public class LoadBalancerAutoConfigurationTests {
 		assertThat(two.nonLoadBalanced.getInterceptors(), is(empty()));
 	}
 
+	@Test
+	public void noStatsMetricsForOtherClients() {
+		ConfigurableApplicationContext context = init(OneRestTemplate.class);
+		assertThat(context.getBeansOfType(LoadBalancerStatsMetrics.class).values(),
+				is(empty()));
+	}
+
+	@Test
+	public void statsMetricsForClientDeclaredAsInterface() {
+		ConfigurableApplicationContext context = init(DiscoveryClientConfiguration.class);
+		DiscoveryLoadBalancerClient client = context
+				.getBean(DiscoveryLoadBalancerClient.class);
+		client.getStats().getStats(new DefaultServiceInstance("foo", "example.com", 8080,
+				false));
+		assertThat(context.getBean(LoadBalancerStatsMetrics.class).metrics(),
+				hasSize(3));
+	}
+
 	protected ConfigurableApplicationContext init(Class<?> config) {
 		return new SpringApplicationBuilder().web(false)
 				.properties("spring.aop.proxyTargetClass=true")
@@ -126,6 +146,22 @@ public class LoadBalancerAutoConfigurationTests {
 
 	}
 
+	@Configuration
+	protected static class DiscoveryClientConfiguration {
+
+		@Bean
+		LoadBalancerStats loadBalancerStats() {
+			return new LoadBalancerStats();
+		}
+
+		@Bean
+		LoadBalancerClient loadBalancerClient(LoadBalancerStats stats) {
+			return new DiscoveryLoadBalancerClient(mock(DiscoveryClient.class),
+					new RoundRobinLoadBalancerStrategy(), stats);
+		}
+
+	}
+
 	private static class NoopLoadBalancerClient implements LoadBalancerClient {
 		private final Random random = new Random();
 
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.client.loadbalancer;
+
+import java.net.URI;
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Venil Noronha
+ */
+public class LoadBalancerInterceptorTests {
+
+	@Test
+	public void uriReconstructedOnce() throws Exception {
+		DiscoveryClient discoveryClient = mock(DiscoveryClient.class);
+		when(discoveryClient.getInstances("foo"))
+				.thenReturn(Arrays.<ServiceInstance> asList(new DefaultServiceInstance(
+						"foo", "example.com", 8080, false)));
+		LoadBalancerClient loadBalancer = spy(
+				new DiscoveryLoadBalancerClient(discoveryClient));
+		LoadBalancerInterceptor interceptor = new LoadBalancerInterceptor(loadBalancer);
+		final URI[] uris = new URI[3];
+		interceptor.intercept(new MockClientHttpRequest(HttpMethod.GET,
+				URI.create("http://foo/bar?spam=true")), new byte[0],
+				new ClientHttpRequestExecution() {
+					@Override
+					public ClientHttpResponse execute(HttpRequest request, byte[] body) {
+						for (int i = 0; i < uris.length; i++) {
+							uris[i] = request.getURI();
+						}
+						return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+					}
+				});
+		assertEquals(URI.create("http://example.com:8080/bar?spam=true"), uris[2]);
+		verify(loadBalancer, times(1)).reconstructURI(any(ServiceInstance.class),
+				eq(URI.create("http://foo/bar?spam=true")));
+	}
+
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.client.loadbalancer;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Venil Noronha
+ */
+public class LoadBalancerStrategyTests {
+
+	private List<ServiceInstance> instances = Arrays.<ServiceInstance> asList(
+			instance(8080), instance(8081), instance(8082));
+
+	@Test
+	public void roundRobin() {
+		LoadBalancerStrategy strategy = new RoundRobinLoadBalancerStrategy();
+		assertEquals(8080, strategy.choose("foo", this.instances).getPort());
+		assertEquals(8081, strategy.choose("foo", this.instances).getPort());
+		assertEquals(8080, strategy.choose("bar", this.instances).getPort());
+		assertEquals(8082, strategy.choose("foo", this.instances).getPort());
+		assertEquals(8080, strategy.choose("foo", this.instances).getPort());
+	}
+
+	@Test
+	public void random() {
+		LoadBalancerStrategy strategy = new RandomLoadBalancerStrategy();
+		Set<Integer> ports = new HashSet<>();
+		for (int i = 0; i < 200; i++) {
+			ports.add(strategy.choose("foo", this.instances).getPort());
+		}
+		assertEquals(3, ports.size());
+	}
+
+	@Test
+	public void powerOfTwoChoicesAvoidsBusyInstance() {
+		LoadBalancerStats stats = new LoadBalancerStats();
+		stats.getStats(instance(8080)).start();
+		stats.getStats(instance(8080)).start();
+		stats.getStats(instance(8081)).start();
+		LoadBalancerStrategy strategy = new PowerOfTwoChoicesLoadBalancerStrategy(stats);
+		for (int i = 0; i < 100; i++) {
+			// Whichever two are picked, one of them is less busy than 8080
+			assertTrue(strategy.choose("foo", this.instances).getPort() != 8080);
+		}
+	}
+
+	@Test
+	public void powerOfTwoChoicesAvoidsSlowInstance() {
+		LoadBalancerStats stats = new LoadBalancerStats();
+		record(stats.getStats(instance(8080)), 50000000L);
+		record(stats.getStats(instance(8081)), 1000000L);
+		LoadBalancerStrategy strategy = new PowerOfTwoChoicesLoadBalancerStrategy(stats);
+		List<ServiceInstance> instances = this.instances.subList(0, 2);
+		for (int i = 0; i < 100; i++) {
+			assertEquals(8081, strategy.choose("foo", instances).getPort());
+		}
+	}
+
+	@Test
+	public void weighted() {
+		List<ServiceInstance> instances = Arrays.<ServiceInstance> asList(
+				instance(8080, "0"), instance(8081, "3"), instance(8082, "oops"));
+		LoadBalancerStrategy strategy = new WeightedLoadBalancerStrategy();
+		int[] counts = new int[3];
+		for (int i = 0; i < 4000; i++) {
+			counts[strategy.choose("foo", instances).getPort() - 8080]++;
+		}
+		assertEquals(0, counts[0]);
+		assertTrue("Not weighted: " + Arrays.toString(counts),
+				counts[1] > 2 * counts[2]);
+		assertTrue("Not used: " + Arrays.toString(counts), counts[2] > 0);
+	}
+
+	@Test
+	public void allWeightsZero() {
+		List<ServiceInstance> instances = Arrays.<ServiceInstance> asList(
+				instance(8080, "0"), instance(8081, "0"));
+		Set<Integer> ports = new HashSet<>();
+		for (int i = 0; i < 200; i++) {
+			ports.add(new WeightedLoadBalancerStrategy().choose("foo", instances)
+					.getPort());
+		}
+		assertEquals(2, ports.size());
+	}
+
+	private static void record(InstanceStats stats, long latency) {
+		stats.finish(System.nanoTime() - latency, false);
+	}
+
+	private static DefaultServiceInstance instance(int port) {
+		return new DefaultServiceInstance("foo", "localhost", port, false);
+	}
+
+	private static DefaultServiceInstance instance(int port, String weight) {
+		DefaultServiceInstance instance = instance(port);
+		instance.getMetadata().put("weight", weight);
+		return instance;
+	}
+
+}
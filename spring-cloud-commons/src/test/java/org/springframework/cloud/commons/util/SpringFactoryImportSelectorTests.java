@@ -16,7 +16,15 @@
 
 package org.springframework.cloud.commons.util;
 
+import java.io.IOException;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.net.URL;
+import java.util.Enumeration;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.Test;
+import org.springframework.core.type.StandardAnnotationMetadata;
 
 import static org.junit.Assert.assertEquals;
 
@@ -32,9 +40,61 @@ public class SpringFactoryImportSelectorTests {
 				selector.getAnnotationClass());
 	}
 
+	@Test
+	public void factoriesLoadedOncePerClassLoader() {
+		CountingClassLoader loader = new CountingClassLoader();
+		StandardAnnotationMetadata metadata = new StandardAnnotationMetadata(
+				Annotated.class);
+		for (int i = 0; i < 3; i++) {
+			MyRuntimeAnnotationImportSelector selector = new MyRuntimeAnnotationImportSelector();
+			selector.setBeanClassLoader(loader);
+			assertEquals(0, selector.selectImports(metadata).length);
+		}
+		assertEquals(1, loader.count.get());
+	}
+
 	public @interface MyAnnotation {
 	}
 
+	@Retention(RetentionPolicy.RUNTIME)
+	public @interface MyRuntimeAnnotation {
+	}
+
+	@MyRuntimeAnnotation
+	public static class Annotated {
+	}
+
+	public static class MyRuntimeAnnotationImportSelector extends
+			SpringFactoryImportSelector<MyRuntimeAnnotation> {
+
+		@Override
+		protected boolean isEnabled() {
+			return true;
+		}
+
+		@Override
+		protected boolean hasDefaultFactory() {
+			return true;
+		}
+
+	}
+
+	private static class CountingClassLoader extends ClassLoader {
+
+		private final AtomicInteger count = new AtomicInteger();
+
+		CountingClassLoader() {
+			super(SpringFactoryImportSelectorTests.class.getClassLoader());
+		}
+
+		@Override
+		public Enumeration<URL> getResources(String name) throws IOException {
+			this.count.incrementAndGet();
+			return super.getResources(name);
+		}
+
+	}
+
 	public static class MyAnnotationImportSelector extends
 			SpringFactoryImportSelector<MyAnnotation> {
 
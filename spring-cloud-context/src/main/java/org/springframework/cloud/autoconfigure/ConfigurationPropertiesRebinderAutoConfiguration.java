@@ -17,7 +17,10 @@
 package org.springframework.cloud.autoconfigure;
 
 import java.util.Collections;
+import java.util.concurrent.TimeUnit;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -32,12 +35,16 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 
 @Configuration
 @ConditionalOnBean(ConfigurationPropertiesBindingPostProcessor.class)
 public class ConfigurationPropertiesRebinderAutoConfiguration
 		implements ApplicationContextAware, SmartInitializingSingleton {
 
+	private static Log logger = LogFactory
+			.getLog(ConfigurationPropertiesRebinderAutoConfiguration.class);
+
 	private ApplicationContext context;
 
 	@Override
@@ -65,14 +72,29 @@ public class ConfigurationPropertiesRebinderAutoConfiguration
 	@ConditionalOnMissingBean(search = SearchStrategy.CURRENT)
 	public ConfigurationPropertiesRebinder configurationPropertiesRebinder(
 			ConfigurationPropertiesBeans beans,
-			ConfigurationPropertiesBindingPostProcessor binder) {
+			ConfigurationPropertiesBindingPostProcessor binder, Environment environment) {
 		ConfigurationPropertiesRebinder rebinder = new ConfigurationPropertiesRebinder(
 				binder, beans);
+		if (environment.getProperty("spring.cloud.refresh.parallel-rebind",
+				Boolean.class, false)) {
+			int threads = environment.getProperty("spring.cloud.refresh.rebind-threads",
+					Integer.class, Runtime.getRuntime().availableProcessors());
+			rebinder.setExecutor(RefreshAutoConfiguration.executor("rebind-", threads));
+		}
 		return rebinder;
 	}
 
 	@Override
 	public void afterSingletonsInstantiated() {
+		if (logger.isDebugEnabled()) {
+			for (ConfigurationPropertiesBeans beans : this.context
+					.getBeansOfType(ConfigurationPropertiesBeans.class).values()) {
+				logger.debug("Post-processed " + beans.getPostProcessingCount()
+						+ " beans for @ConfigurationProperties in "
+						+ TimeUnit.NANOSECONDS.toMillis(beans.getPostProcessingTime())
+						+ "ms");
+			}
+		}
 		// After all beans are initialized send a pre-emptive EnvironmentChangeEvent
 		// so that anything that needs to rebind gets a chance now (especially for
 		// beans in the parent context)
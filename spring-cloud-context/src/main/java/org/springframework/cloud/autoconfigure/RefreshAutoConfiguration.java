@@ -17,6 +17,11 @@
 
 package org.springframework.cloud.autoconfigure;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -29,6 +34,8 @@ import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
 /**
  * Autoconfiguration for the refresh scope and associated features to do with changes in
@@ -44,8 +51,33 @@ public class RefreshAutoConfiguration {
 
 	@Bean
 	@ConditionalOnMissingBean
-	public static RefreshScope refreshScope() {
-		return new RefreshScope();
+	public static RefreshScope refreshScope(Environment environment) {
+		RefreshScope scope = new RefreshScope();
+		scope.setTargeted(environment.getProperty("spring.cloud.refresh.targeted",
+				Boolean.class, false));
+		if (environment.getProperty("spring.cloud.refresh.prewarm", Boolean.class,
+				false)) {
+			int threads = environment.getProperty("spring.cloud.refresh.prewarm-threads",
+					Integer.class, 2);
+			scope.setPrewarmExecutor(executor("refresh-prewarm-", threads));
+		}
+		if (environment.getProperty("spring.cloud.refresh.blue-green", Boolean.class,
+				false)) {
+			scope.setBlueGreen(true);
+			scope.setDestructionExecutor(executor("refresh-destroy-", 1));
+		}
+		return scope;
+	}
+
+	static Executor executor(String prefix, int threads) {
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(prefix);
+		threadFactory.setDaemon(true);
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60,
+				TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), threadFactory);
+		// Idle threads go away, but the owner still has to shut it down when the context
+		// is closed (e.g. the refresh scope does in its destroy())
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
 	}
 
 	@Bean
@@ -64,7 +96,10 @@ public class RefreshAutoConfiguration {
 	@ConditionalOnMissingBean
 	public ContextRefresher contextRefresher(ConfigurableApplicationContext context,
 			RefreshScope scope) {
-		return new ContextRefresher(context, scope);
+		ContextRefresher refresher = new ContextRefresher(context, scope);
+		refresher.setLightweight(context.getEnvironment()
+				.getProperty("spring.cloud.refresh.lightweight", Boolean.class, false));
+		return refresher;
 	}
 
 }
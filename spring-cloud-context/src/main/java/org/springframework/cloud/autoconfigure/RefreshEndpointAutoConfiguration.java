@@ -33,6 +33,8 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingClas
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.cloud.bootstrap.config.PropertySourceBootstrapConfiguration;
+import org.springframework.cloud.bootstrap.encrypt.DecryptionCacheMetrics;
+import org.springframework.cloud.bootstrap.encrypt.EnvironmentDecryptApplicationInitializer;
 import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
 import org.springframework.cloud.context.properties.ConfigurationPropertiesRebinder;
 import org.springframework.cloud.context.refresh.ContextRefresher;
@@ -69,6 +71,14 @@ public class RefreshEndpointAutoConfiguration {
 		return new RefreshScopeHealthIndicator(scope, rebinder);
 	}
 
+	@Bean
+	@ConditionalOnBean(EnvironmentDecryptApplicationInitializer.class)
+	@ConditionalOnMissingBean
+	DecryptionCacheMetrics decryptionCacheMetrics(
+			EnvironmentDecryptApplicationInitializer initializer) {
+		return new DecryptionCacheMetrics(initializer);
+	}
+
 	@ConditionalOnClass(IntegrationMBeanExporter.class)
 	protected static class RestartEndpointWithIntegration {
 
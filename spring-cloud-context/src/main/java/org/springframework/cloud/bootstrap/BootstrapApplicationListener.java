@@ -18,10 +18,14 @@ package org.springframework.cloud.bootstrap;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.springframework.beans.factory.ListableBeanFactory;
 import org.springframework.boot.Banner.Mode;
@@ -33,6 +37,7 @@ import org.springframework.cloud.bootstrap.encrypt.EnvironmentDecryptApplication
 import org.springframework.context.ApplicationContextInitializer;
 import org.springframework.context.ApplicationListener;
 import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.ContextClosedEvent;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.AnnotationAwareOrderComparator;
 import org.springframework.core.annotation.Order;
@@ -46,6 +51,7 @@ import org.springframework.core.env.StandardEnvironment;
 import org.springframework.core.env.SystemEnvironmentPropertySource;
 import org.springframework.core.io.support.SpringFactoriesLoader;
 import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
 import org.springframework.util.StringUtils;
 
 /**
@@ -68,6 +74,21 @@ public class BootstrapApplicationListener
 
 	public static final String DEFAULT_PROPERTIES = "defaultProperties";
 
+	/**
+	 * Bootstrap contexts that can be re-used, by (weakly referenced) class loader and then
+	 * by the parts of the environment that determine what goes in them. Entries are
+	 * removed when their context is closed.
+	 */
+	private static final Map<ClassLoader, ConcurrentMap<List<Object>, CachedBootstrapContext>> contexts = Collections
+			.synchronizedMap(
+					new WeakHashMap<ClassLoader, ConcurrentMap<List<Object>, CachedBootstrapContext>>());
+
+	/**
+	 * Resolved bootstrap configuration classes from spring.factories, by class loader, so
+	 * that the lookup and class loading only happen once for each.
+	 */
+	private static final Map<ClassLoader, List<Class<?>>> configurations = new ConcurrentReferenceHashMap<>();
+
 	private int order = DEFAULT_ORDER;
 
 	@Override
@@ -88,16 +109,34 @@ public class BootstrapApplicationListener
 
 	private ConfigurableApplicationContext bootstrapServiceContext(
 			ConfigurableEnvironment environment, final SpringApplication application) {
+		String configName = environment
+				.resolvePlaceholders("${spring.cloud.bootstrap.name:bootstrap}");
+		String configLocation = environment
+				.resolvePlaceholders("${spring.cloud.bootstrap.location:}");
+		ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+		List<Object> key = null;
+		if (environment.getProperty("spring.cloud.bootstrap.cache", Boolean.class,
+				false)) {
+			key = Arrays.<Object> asList(configName, configLocation,
+					Arrays.asList(environment.getActiveProfiles()),
+					environment.getProperty("spring.cloud.bootstrap.sources", ""));
+			CachedBootstrapContext cached = getCachedContexts(classLoader).get(key);
+			if (cached != null) {
+				if (cached.getContext().isActive()) {
+					addAncestorInitializer(application, cached.getContext());
+					mergeDefaultProperties(environment.getPropertySources(),
+							cached.getPropertySources());
+					return cached.getContext();
+				}
+				getCachedContexts(classLoader).remove(key, cached);
+			}
+		}
 		StandardEnvironment bootstrapEnvironment = new StandardEnvironment();
 		MutablePropertySources bootstrapProperties = bootstrapEnvironment
 				.getPropertySources();
 		for (PropertySource<?> source : bootstrapProperties) {
 			bootstrapProperties.remove(source.getName());
 		}
-		String configName = environment
-				.resolvePlaceholders("${spring.cloud.bootstrap.name:bootstrap}");
-		String configLocation = environment
-				.resolvePlaceholders("${spring.cloud.bootstrap.location:}");
 		Map<String, Object> bootstrapMap = new HashMap<>();
 		bootstrapMap.put("spring.config.name", configName);
 		if (StringUtils.hasText(configLocation)) {
@@ -108,14 +147,6 @@ public class BootstrapApplicationListener
 		for (PropertySource<?> source : environment.getPropertySources()) {
 			bootstrapProperties.addLast(source);
 		}
-		ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
-		// Use names and ensure unique to protect against duplicates
-		List<String> names = SpringFactoriesLoader
-				.loadFactoryNames(BootstrapConfiguration.class, classLoader);
-		for (String name : StringUtils.commaDelimitedListToStringArray(
-				environment.getProperty("spring.cloud.bootstrap.sources", ""))) {
-			names.add(name);
-		}
 		// TODO: is it possible or sensible to share a ResourceLoader?
 		SpringApplicationBuilder builder = new SpringApplicationBuilder()
 				.profiles(environment.getActiveProfiles()).bannerMode(Mode.OFF)
@@ -124,17 +155,9 @@ public class BootstrapApplicationListener
 				.registerShutdownHook(false)
 				.logStartupInfo(false)
 				.web(false);
-		List<Class<?>> sources = new ArrayList<>();
-		for (String name : names) {
-			Class<?> cls = ClassUtils.resolveClassName(name, null);
-			try {
-				cls.getDeclaredAnnotations();
-			}
-			catch (Exception e) {
-				continue;
-			}
-			sources.add(cls);
-		}
+		List<Class<?>> sources = new ArrayList<>(getConfigurations(classLoader));
+		sources.addAll(resolve(Arrays.asList(StringUtils.commaDelimitedListToStringArray(
+				environment.getProperty("spring.cloud.bootstrap.sources", "")))));
 		builder.sources(sources.toArray(new Class[sources.size()]));
 		AnnotationAwareOrderComparator.sort(sources);
 		final ConfigurableApplicationContext context = builder.run();
@@ -143,10 +166,49 @@ public class BootstrapApplicationListener
 		// It only has properties in it now that we don't want in the parent so remove
 		// it (and it will be added back later)
 		bootstrapProperties.remove(BOOTSTRAP_PROPERTY_SOURCE_NAME);
+		if (key != null) {
+			// Before the merge, which moves property sources out of the bootstrap context
+			cache(classLoader, key, new CachedBootstrapContext(context,
+					environment.getPropertySources(), bootstrapProperties));
+		}
 		mergeDefaultProperties(environment.getPropertySources(), bootstrapProperties);
 		return context;
 	}
 
+	private static ConcurrentMap<List<Object>, CachedBootstrapContext> getCachedContexts(
+			ClassLoader classLoader) {
+		synchronized (contexts) {
+			ConcurrentMap<List<Object>, CachedBootstrapContext> cache = contexts
+					.get(classLoader);
+			if (cache == null) {
+				cache = new ConcurrentHashMap<>();
+				contexts.put(classLoader, cache);
+			}
+			return cache;
+		}
+	}
+
+	private void cache(ClassLoader classLoader, final List<Object> key,
+			final CachedBootstrapContext cached) {
+		final ConcurrentMap<List<Object>, CachedBootstrapContext> cache = getCachedContexts(
+				classLoader);
+		// The cached context holds its class loader, so the entry has to be removed
+		// explicitly for the class loader to be collected
+		cached.getContext().addApplicationListener(
+				new ApplicationListener<ContextClosedEvent>() {
+					@Override
+					public void onApplicationEvent(ContextClosedEvent event) {
+						if (event.getApplicationContext() == cached.getContext()) {
+							cache.remove(key, cached);
+						}
+					}
+				});
+		CachedBootstrapContext replaced = cache.put(key, cached);
+		if (replaced != null && replaced.getContext().isActive()) {
+			replaced.getContext().close();
+		}
+	}
+
 	private void mergeDefaultProperties(MutablePropertySources environment,
 			MutablePropertySources bootstrap) {
 		String name = DEFAULT_PROPERTIES;
@@ -202,6 +264,31 @@ public class BootstrapApplicationListener
 		bootstrap.replace(DEFAULT_PROPERTIES, result);
 	}
 
+	private List<Class<?>> getConfigurations(ClassLoader classLoader) {
+		List<Class<?>> sources = configurations.get(classLoader);
+		if (sources == null) {
+			sources = Collections.unmodifiableList(resolve(SpringFactoriesLoader
+					.loadFactoryNames(BootstrapConfiguration.class, classLoader)));
+			configurations.put(classLoader, sources);
+		}
+		return sources;
+	}
+
+	private List<Class<?>> resolve(List<String> names) {
+		List<Class<?>> sources = new ArrayList<>();
+		for (String name : names) {
+			Class<?> cls = ClassUtils.resolveClassName(name, null);
+			try {
+				cls.getDeclaredAnnotations();
+			}
+			catch (Exception e) {
+				continue;
+			}
+			sources.add(cls);
+		}
+		return sources;
+	}
+
 	private void addAncestorInitializer(SpringApplication application,
 			ConfigurableApplicationContext context) {
 		boolean installed = false;
@@ -337,6 +424,54 @@ public class BootstrapApplicationListener
 
 	}
 
+	/**
+	 * A bootstrap context that can be re-used, along with the property sources that it
+	 * contributes to the application environment.
+	 */
+	private static class CachedBootstrapContext {
+
+		private final ConfigurableApplicationContext context;
+
+		private final List<PropertySource<?>> additional = new ArrayList<>();
+
+		private final Map<String, Object> defaults = new LinkedHashMap<>();
+
+		public CachedBootstrapContext(ConfigurableApplicationContext context,
+				MutablePropertySources environment, MutablePropertySources bootstrap) {
+			this.context = context;
+			for (PropertySource<?> source : bootstrap) {
+				if (DEFAULT_PROPERTIES.equals(source.getName())) {
+					if (source instanceof MapPropertySource) {
+						this.defaults
+								.putAll(((MapPropertySource) source).getSource());
+					}
+				}
+				else if (!environment.contains(source.getName())) {
+					this.additional.add(source);
+				}
+			}
+		}
+
+		public ConfigurableApplicationContext getContext() {
+			return this.context;
+		}
+
+		/**
+		 * @return property sources equivalent to the ones in a fresh bootstrap context,
+		 * ready to be merged into the application environment
+		 */
+		public MutablePropertySources getPropertySources() {
+			MutablePropertySources sources = new MutablePropertySources();
+			for (PropertySource<?> source : this.additional) {
+				sources.addLast(source);
+			}
+			sources.addLast(new MapPropertySource(DEFAULT_PROPERTIES,
+					new LinkedHashMap<String, Object>(this.defaults)));
+			return sources;
+		}
+
+	}
+
 	private static class ExtendedDefaultPropertySource
 			extends SystemEnvironmentPropertySource {
 
@@ -16,15 +16,27 @@
 
 package org.springframework.cloud.bootstrap.config;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.bind.PropertySourcesPropertyValues;
 import org.springframework.boot.bind.RelaxedDataBinder;
 import org.springframework.boot.bind.RelaxedPropertyResolver;
@@ -45,7 +57,9 @@ import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.core.env.MutablePropertySources;
 import org.springframework.core.env.PropertySource;
 import org.springframework.core.env.StandardEnvironment;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.util.ResourceUtils;
+import org.springframework.util.StringUtils;
 
 /**
  * @author Dave Syer
@@ -62,11 +76,34 @@ public class PropertySourceBootstrapConfiguration implements
 	private static Log logger = LogFactory
 			.getLog(PropertySourceBootstrapConfiguration.class);
 
+	/**
+	 * Snapshot files that have already been used instead of calling the locators (only
+	 * done once per JVM, so that a refresh always calls them).
+	 */
+	private static Set<String> served = Collections
+			.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
 	private int order = Ordered.HIGHEST_PRECEDENCE + 10;
 
 	@Autowired(required = false)
 	private List<PropertySourceLocator> propertySourceLocators = new ArrayList<>();
 
+	@Value("${spring.cloud.bootstrap.parallel-locators:false}")
+	private boolean parallel = false;
+
+	@Value("${spring.cloud.bootstrap.locator-timeout:0}")
+	private long timeout = 0;
+
+	private Executor executor;
+
+	@Value("${spring.cloud.bootstrap.snapshot.file:}")
+	private String snapshotFile;
+
+	@Value("${spring.cloud.bootstrap.snapshot.serve-first:false}")
+	private boolean snapshotFirst = false;
+
+	private PropertySourceSnapshotStore snapshotStore;
+
 	@Override
 	public int getOrder() {
 		return this.order;
@@ -77,24 +114,90 @@ public class PropertySourceBootstrapConfiguration implements
 		this.propertySourceLocators = new ArrayList<>(propertySourceLocators);
 	}
 
+	/**
+	 * Flag to say that the locators should be called concurrently (in a thread pool that
+	 * only lives as long as they are running) if there is no
+	 * {@link #setExecutor(Executor) executor}. The property sources are still added in
+	 * the order of the locators. Default false.
+	 *
+	 * @param parallel the flag to set
+	 */
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
+
+	/**
+	 * Maximum time in milliseconds to wait for each locator when they are called
+	 * concurrently. A locator that takes longer is ignored (as if it had returned null).
+	 * Default 0 (no limit).
+	 *
+	 * @param timeout the timeout to set
+	 */
+	public void setTimeout(long timeout) {
+		this.timeout = timeout;
+	}
+
+	/**
+	 * Store for snapshots of the located property sources. If there is one, the
+	 * property sources are saved after they have been located, and the last snapshot is
+	 * used instead if a locator fails (throws an exception) or times out. Default null,
+	 * unless <code>spring.cloud.bootstrap.snapshot.file</code> is set.
+	 *
+	 * @param snapshotStore the snapshot store to set
+	 */
+	public void setSnapshotStore(PropertySourceSnapshotStore snapshotStore) {
+		this.snapshotStore = snapshotStore;
+	}
+
+	/**
+	 * Flag to say that on the first start in this JVM the last snapshot (if there is one)
+	 * should be used straight away without waiting for the locators, which are then
+	 * called in the background to save a fresh snapshot for next time. Default false.
+	 *
+	 * @param snapshotFirst the flag to set
+	 */
+	public void setSnapshotFirst(boolean snapshotFirst) {
+		this.snapshotFirst = snapshotFirst;
+	}
+
+	/**
+	 * Executor to use to call the locators concurrently. Default null.
+	 *
+	 * @param executor the executor to set
+	 */
+	public void setExecutor(Executor executor) {
+		this.executor = executor;
+	}
+
 	@Override
 	public void initialize(ConfigurableApplicationContext applicationContext) {
-		CompositePropertySource composite = new CompositePropertySource(
-				BOOTSTRAP_PROPERTY_SOURCE_NAME);
+		locatePropertySources(applicationContext.getEnvironment());
+	}
+
+	/**
+	 * Call the {@link PropertySourceLocator PropertySourceLocators} and insert the
+	 * property sources they provide into the environment (replacing any that were
+	 * located before). Used to initialize the application context and also to reload the
+	 * remote property sources on a refresh.
+	 *
+	 * @param environment the environment to update
+	 */
+	public void locatePropertySources(ConfigurableEnvironment environment) {
 		AnnotationAwareOrderComparator.sort(this.propertySourceLocators);
-		boolean empty = true;
-		ConfigurableEnvironment environment = applicationContext.getEnvironment();
-		for (PropertySourceLocator locator : this.propertySourceLocators) {
-			PropertySource<?> source = null;
-			source = locator.locate(environment);
-			if (source == null) {
-				continue;
+		PropertySourceSnapshotStore store = getSnapshotStore();
+		CompositePropertySource composite = null;
+		if (store != null && this.snapshotFirst
+				&& served.add(store.getFile().getAbsolutePath())) {
+			composite = store.load(BOOTSTRAP_PROPERTY_SOURCE_NAME);
+			if (composite != null) {
+				logger.info("Using property source snapshot: " + store.getFile());
+				revalidate(environment, store);
 			}
-			logger.info("Located property source: " + source);
-			composite.addPropertySource(source);
-			empty = false;
 		}
-		if (!empty) {
+		if (composite == null) {
+			composite = locate(environment, store);
+		}
+		if (!composite.getPropertySources().isEmpty()) {
 			MutablePropertySources propertySources = environment.getPropertySources();
 			String logConfig = environment.resolvePlaceholders("${logging.config:}");
 			LogFile logFile = LogFile.get(environment);
@@ -107,6 +210,192 @@ public class PropertySourceBootstrapConfiguration implements
 		}
 	}
 
+	private PropertySourceSnapshotStore getSnapshotStore() {
+		if (this.snapshotStore == null && StringUtils.hasText(this.snapshotFile)) {
+			this.snapshotStore = new PropertySourceSnapshotStore(
+					new File(this.snapshotFile));
+		}
+		return this.snapshotStore;
+	}
+
+	/**
+	 * Call the locators and save the result in the snapshot store (if there is one). If
+	 * a locator fails or times out, fall back to the last snapshot.
+	 */
+	private CompositePropertySource locate(ConfigurableEnvironment environment,
+			PropertySourceSnapshotStore store) {
+		List<PropertySourceLocator> timedOut = new ArrayList<>();
+		CompositePropertySource composite;
+		try {
+			composite = compose(locate(environment, timedOut));
+		}
+		catch (RuntimeException e) {
+			CompositePropertySource snapshot = store == null ? null
+					: store.load(BOOTSTRAP_PROPERTY_SOURCE_NAME);
+			if (snapshot == null) {
+				throw e;
+			}
+			logger.warn("Could not locate property sources, using snapshot: "
+					+ store.getFile(), e);
+			return snapshot;
+		}
+		if (store == null) {
+			return composite;
+		}
+		if (!timedOut.isEmpty()) {
+			CompositePropertySource snapshot = store
+					.load(BOOTSTRAP_PROPERTY_SOURCE_NAME);
+			if (snapshot != null) {
+				logger.warn("Timed out locating property sources, using snapshot: "
+						+ store.getFile());
+				return snapshot;
+			}
+		}
+		else if (!composite.getPropertySources().isEmpty()) {
+			store.save(composite);
+		}
+		return composite;
+	}
+
+	/**
+	 * Call the locators again in the background (with a copy of the environment in its
+	 * current state) and save the result in the snapshot store, so the next start uses
+	 * fresh values.
+	 */
+	private void revalidate(ConfigurableEnvironment environment,
+			final PropertySourceSnapshotStore store) {
+		final StandardEnvironment copy = new StandardEnvironment();
+		MutablePropertySources sources = copy.getPropertySources();
+		sources.remove(StandardEnvironment.SYSTEM_PROPERTIES_PROPERTY_SOURCE_NAME);
+		sources.remove(StandardEnvironment.SYSTEM_ENVIRONMENT_PROPERTY_SOURCE_NAME);
+		for (PropertySource<?> source : environment.getPropertySources()) {
+			if (!BOOTSTRAP_PROPERTY_SOURCE_NAME.equals(source.getName())) {
+				sources.addLast(source);
+			}
+		}
+		copy.setActiveProfiles(environment.getActiveProfiles());
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					List<PropertySourceLocator> timedOut = new ArrayList<>();
+					CompositePropertySource composite = compose(
+							locate(copy, timedOut));
+					if (timedOut.isEmpty()
+							&& !composite.getPropertySources().isEmpty()) {
+						store.save(composite);
+					}
+				}
+				catch (RuntimeException e) {
+					logger.warn("Could not revalidate property source snapshot: "
+							+ store.getFile(), e);
+				}
+			}
+		}, "bootstrap-snapshot-revalidate");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	private CompositePropertySource compose(List<PropertySource<?>> sources) {
+		CompositePropertySource composite = new CompositePropertySource(
+				BOOTSTRAP_PROPERTY_SOURCE_NAME);
+		for (PropertySource<?> source : sources) {
+			if (source == null) {
+				continue;
+			}
+			logger.info("Located property source: " + source);
+			composite.addPropertySource(source);
+		}
+		return composite;
+	}
+
+	/**
+	 * Call the locators (concurrently if there is an executor) and collect the results
+	 * in the same order.
+	 */
+	private List<PropertySource<?>> locate(final ConfigurableEnvironment environment,
+			List<PropertySourceLocator> timedOut) {
+		List<PropertySource<?>> sources = new ArrayList<>();
+		Executor executor = this.executor;
+		ExecutorService pool = null;
+		if (executor == null && this.parallel
+				&& this.propertySourceLocators.size() > 1) {
+			CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(
+					"bootstrap-locator-");
+			threadFactory.setDaemon(true);
+			pool = Executors.newFixedThreadPool(this.propertySourceLocators.size(),
+					threadFactory);
+			executor = pool;
+		}
+		if (executor == null) {
+			for (PropertySourceLocator locator : this.propertySourceLocators) {
+				sources.add(locator.locate(environment));
+			}
+			return sources;
+		}
+		try {
+			List<FutureTask<PropertySource<?>>> tasks = new ArrayList<>();
+			for (final PropertySourceLocator locator : this.propertySourceLocators) {
+				FutureTask<PropertySource<?>> task = new FutureTask<>(
+						new Callable<PropertySource<?>>() {
+							@Override
+							public PropertySource<?> call() throws Exception {
+								return locator.locate(environment);
+							}
+						});
+				tasks.add(task);
+				executor.execute(task);
+			}
+			long deadline = System.nanoTime()
+					+ TimeUnit.MILLISECONDS.toNanos(this.timeout);
+			for (int i = 0; i < tasks.size(); i++) {
+				PropertySourceLocator locator = this.propertySourceLocators.get(i);
+				try {
+					sources.add(get(tasks.get(i), deadline));
+				}
+				catch (TimeoutException e) {
+					tasks.get(i).cancel(true);
+					logger.warn("Timed out after " + this.timeout
+							+ "ms locating property source with: " + locator);
+					timedOut.add(locator);
+					sources.add(null);
+				}
+			}
+		}
+		finally {
+			if (pool != null) {
+				pool.shutdownNow();
+			}
+		}
+		return sources;
+	}
+
+	private PropertySource<?> get(FutureTask<PropertySource<?>> task, long deadline)
+			throws TimeoutException {
+		try {
+			if (this.timeout > 0) {
+				return task.get(Math.max(deadline - System.nanoTime(), 0),
+						TimeUnit.NANOSECONDS);
+			}
+			return task.get();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted locating property sources", e);
+		}
+		catch (ExecutionException e) {
+			// Fail fast, as if the locator had been called directly
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+	}
+
 	private void reinitializeLoggingSystem(ConfigurableEnvironment environment,
 			String oldLogConfig, LogFile oldLogFile) {
 		Map<String, Object> props = new RelaxedPropertyResolver(environment)
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.bootstrap.config;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.core.env.CompositePropertySource;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.PropertySource;
+
+/**
+ * Stores a snapshot of the property sources located in the bootstrap phase in a local
+ * file, so that they can be used if the locators fail on a later start, or to start
+ * without waiting for them. The file is a compact binary list of the (leaf) property
+ * sources with their names, keys and values (as Strings), in order of precedence. Only
+ * enumerable property sources can be stored.
+ *
+ * <p>
+ * The file contains whatever the locators returned (decryption happens later), so it
+ * should be treated as sensitive. Where the file system supports it, it is only readable
+ * by its owner.
+ * </p>
+ *
+ * @author Venil Noronha
+ *
+ */
+public class PropertySourceSnapshotStore {
+
+	private static final Log logger = LogFactory.getLog(PropertySourceSnapshotStore.class);
+
+	private static final int MAGIC = 0x53434253;
+
+	private static final int VERSION = 1;
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private final File file;
+
+	public PropertySourceSnapshotStore(File file) {
+		this.file = file;
+	}
+
+	public File getFile() {
+		return this.file;
+	}
+
+	/**
+	 * Load the last snapshot that was saved.
+	 *
+	 * @param name the name of the composite property source to create
+	 * @return a property source with the same contents as the one that was saved, or null
+	 * if there is no (readable) snapshot
+	 */
+	public CompositePropertySource load(String name) {
+		if (!this.file.exists()) {
+			return null;
+		}
+		try (InputStream stream = Files.newInputStream(this.file.toPath())) {
+			DataInputStream input = new DataInputStream(
+					new BufferedInputStream(stream));
+			if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+				logger.warn("Ignoring property source snapshot with unknown format: "
+						+ this.file);
+				return null;
+			}
+			CompositePropertySource composite = new CompositePropertySource(name);
+			int count = input.readInt();
+			for (int i = 0; i < count; i++) {
+				String sourceName = readString(input);
+				int size = input.readInt();
+				Map<String, Object> map = new LinkedHashMap<String, Object>();
+				for (int j = 0; j < size; j++) {
+					String key = readString(input);
+					map.put(key, readString(input));
+				}
+				composite.addPropertySource(new MapPropertySource(sourceName, map));
+			}
+			return composite;
+		}
+		catch (IOException e) {
+			logger.warn("Cannot read property source snapshot: " + this.file, e);
+			return null;
+		}
+	}
+
+	/**
+	 * Save a snapshot of the property source provided, replacing the last one
+	 * atomically (where the file system allows it).
+	 *
+	 * @param source the property source to save
+	 * @return true if it was saved, false if it contains property sources that cannot be
+	 * stored or there was an error
+	 */
+	public boolean save(PropertySource<?> source) {
+		List<EnumerablePropertySource<?>> sources = new ArrayList<EnumerablePropertySource<?>>();
+		if (!collect(source, sources)) {
+			logger.info("Not saving property source snapshot (property source "
+					+ "cannot be enumerated): " + source);
+			return false;
+		}
+		try {
+			File parent = this.file.getAbsoluteFile().getParentFile();
+			parent.mkdirs();
+			Path temp = Files.createTempFile(parent.toPath(), this.file.getName(),
+					".tmp");
+			try {
+				restrictPermissions(temp);
+				try (OutputStream stream = Files.newOutputStream(temp)) {
+					DataOutputStream output = new DataOutputStream(
+							new BufferedOutputStream(stream));
+					write(output, sources);
+					output.flush();
+				}
+				move(temp, this.file.toPath());
+			}
+			finally {
+				Files.deleteIfExists(temp);
+			}
+			return true;
+		}
+		catch (IOException e) {
+			logger.warn("Cannot save property source snapshot: " + this.file, e);
+			return false;
+		}
+	}
+
+	private void write(DataOutputStream output, List<EnumerablePropertySource<?>> sources)
+			throws IOException {
+		output.writeInt(MAGIC);
+		output.writeInt(VERSION);
+		output.writeInt(sources.size());
+		for (EnumerablePropertySource<?> source : sources) {
+			writeString(output, source.getName());
+			Map<String, String> map = new LinkedHashMap<String, String>();
+			for (String key : source.getPropertyNames()) {
+				Object value = source.getProperty(key);
+				if (value != null) {
+					map.put(key, value.toString());
+				}
+			}
+			output.writeInt(map.size());
+			for (Map.Entry<String, String> entry : map.entrySet()) {
+				writeString(output, entry.getKey());
+				writeString(output, entry.getValue());
+			}
+		}
+	}
+
+	private boolean collect(PropertySource<?> source,
+			List<EnumerablePropertySource<?>> sources) {
+		if (source instanceof CompositePropertySource) {
+			for (PropertySource<?> nested : ((CompositePropertySource) source)
+					.getPropertySources()) {
+				if (!collect(nested, sources)) {
+					return false;
+				}
+			}
+			return true;
+		}
+		if (source instanceof EnumerablePropertySource) {
+			sources.add((EnumerablePropertySource<?>) source);
+			return true;
+		}
+		return false;
+	}
+
+	private void restrictPermissions(Path path) throws IOException {
+		try {
+			Files.setPosixFilePermissions(path, EnumSet.of(
+					PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE));
+		}
+		catch (UnsupportedOperationException e) {
+			// Not a POSIX file system
+		}
+	}
+
+	private void move(Path source, Path target) throws IOException {
+		try {
+			Files.move(source, target, StandardCopyOption.ATOMIC_MOVE,
+					StandardCopyOption.REPLACE_EXISTING);
+		}
+		catch (AtomicMoveNotSupportedException e) {
+			Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	// Not DataOutput.writeUTF() because values can be longer than 64K
+	private static void writeString(DataOutputStream output, String value)
+			throws IOException {
+		byte[] bytes = value.getBytes(UTF_8);
+		output.writeInt(bytes.length);
+		output.write(bytes);
+	}
+
+	private String readString(DataInputStream input) throws IOException {
+		int length = input.readInt();
+		if (length < 0 || length > this.file.length()) {
+			throw new IOException("Corrupt property source snapshot");
+		}
+		byte[] bytes = new byte[length];
+		input.readFully(bytes);
+		return new String(bytes, UTF_8);
+	}
+
+}
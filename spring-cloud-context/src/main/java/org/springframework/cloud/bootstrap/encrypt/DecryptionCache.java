@@ -0,0 +1,176 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.bootstrap.encrypt;
+
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.security.crypto.codec.Hex;
+
+/**
+ * Bounded (least recently used) cache of decrypted values, keyed by a hash of the cipher
+ * text, so that values that have not changed are not decrypted again, e.g. on a refresh.
+ * Counts hits and misses.
+ *
+ * <p>
+ * A cache is only valid for one key, so caches that should survive a refresh (when the
+ * bootstrap context, and the encryptor, are re-created) are obtained from
+ * {@link #shared(String, int)} with an id that identifies the key. Shared caches are
+ * counted, and each user (e.g. a bootstrap context) has to {@link #release()} the cache
+ * when it is done with it, so that the cache (and the plain text values in it) goes away
+ * once nothing that decrypts with the key is using it.
+ * </p>
+ *
+ * @author Venil Noronha
+ *
+ */
+public class DecryptionCache {
+
+	/**
+	 * Shared caches by a hash of their id (guarded by itself).
+	 */
+	private static final Map<String, DecryptionCache> shared = new HashMap<>();
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private static final ThreadLocal<MessageDigest> digests = new ThreadLocal<MessageDigest>() {
+		@Override
+		protected MessageDigest initialValue() {
+			try {
+				return MessageDigest.getInstance("SHA-256");
+			}
+			catch (NoSuchAlgorithmException e) {
+				throw new IllegalStateException("No SHA-256 digest available", e);
+			}
+		}
+	};
+
+	/**
+	 * The key of a shared cache (null if it is not shared).
+	 */
+	private String id;
+
+	/**
+	 * The number of users of a shared cache (guarded by {@link #shared}).
+	 */
+	private int users;
+
+	private final Map<String, String> values;
+
+	private final AtomicLong hits = new AtomicLong();
+
+	private final AtomicLong misses = new AtomicLong();
+
+	public DecryptionCache(final int maxSize) {
+		this.values = Collections
+				.synchronizedMap(new LinkedHashMap<String, String>(16, 0.75f, true) {
+					@Override
+					protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+						return size() > maxSize;
+					}
+				});
+	}
+
+	/**
+	 * The cache for the key identified by the id provided, shared by everything in the
+	 * same class loader. The id is hashed, so it can contain the key itself. Every call
+	 * has to be matched by a call to {@link #release()}.
+	 *
+	 * @param id an identifier for the key that the cipher texts are encrypted with
+	 * @param size the maximum size of the cache, if it has to be created
+	 * @return a cache
+	 */
+	public static DecryptionCache shared(String id, int size) {
+		String hash = hash(id);
+		synchronized (shared) {
+			DecryptionCache cache = shared.get(hash);
+			if (cache == null) {
+				cache = new DecryptionCache(size);
+				cache.id = hash;
+				shared.put(hash, cache);
+			}
+			cache.users++;
+			return cache;
+		}
+	}
+
+	/**
+	 * Release a cache obtained from {@link #shared(String, int)}. It stops being shared
+	 * when all its users have released it. Does nothing if the cache is not shared.
+	 */
+	public void release() {
+		if (this.id == null) {
+			return;
+		}
+		synchronized (shared) {
+			if (--this.users <= 0 && shared.get(this.id) == this) {
+				shared.remove(this.id);
+			}
+		}
+	}
+
+	/**
+	 * @param cipher the cipher text
+	 * @return the decrypted value or null if it is not in the cache
+	 */
+	public String get(String cipher) {
+		String value = this.values.get(hash(cipher));
+		if (value == null) {
+			this.misses.incrementAndGet();
+		}
+		else {
+			this.hits.incrementAndGet();
+		}
+		return value;
+	}
+
+	public void put(String cipher, String value) {
+		this.values.put(hash(cipher), value);
+	}
+
+	public void evict(String cipher) {
+		this.values.remove(hash(cipher));
+	}
+
+	public void clear() {
+		this.values.clear();
+	}
+
+	public int size() {
+		return this.values.size();
+	}
+
+	public long getHits() {
+		return this.hits.get();
+	}
+
+	public long getMisses() {
+		return this.misses.get();
+	}
+
+	private static String hash(String value) {
+		// digest() resets the digest, so it can be used again by the same thread
+		return new String(Hex.encode(digests.get().digest(value.getBytes(UTF_8))));
+	}
+
+}
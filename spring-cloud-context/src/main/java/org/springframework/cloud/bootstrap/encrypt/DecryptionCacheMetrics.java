@@ -0,0 +1,50 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.bootstrap.encrypt;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+
+/**
+ * Exposes the hits and misses of the {@link DecryptionCache} used by an
+ * {@link EnvironmentDecryptApplicationInitializer}.
+ *
+ * @author Venil Noronha
+ *
+ */
+public class DecryptionCacheMetrics implements PublicMetrics {
+
+	private final EnvironmentDecryptApplicationInitializer initializer;
+
+	public DecryptionCacheMetrics(EnvironmentDecryptApplicationInitializer initializer) {
+		this.initializer = initializer;
+	}
+
+	@Override
+	public Collection<Metric<?>> metrics() {
+		DecryptionCache cache = this.initializer.getCache();
+		Collection<Metric<?>> metrics = new ArrayList<Metric<?>>();
+		metrics.add(new Metric<Long>("decrypt.cache.hit", cache.getHits()));
+		metrics.add(new Metric<Long>("decrypt.cache.miss", cache.getMisses()));
+		metrics.add(new Metric<Integer>("decrypt.cache.size", cache.size()));
+		return metrics;
+	}
+
+}
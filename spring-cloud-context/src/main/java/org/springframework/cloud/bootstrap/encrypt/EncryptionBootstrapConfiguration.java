@@ -15,6 +15,7 @@
  */
 package org.springframework.cloud.bootstrap.encrypt;
 
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionOutcome;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
@@ -42,7 +43,7 @@ import org.springframework.util.StringUtils;
 @Configuration
 @ConditionalOnClass({ TextEncryptor.class })
 @EnableConfigurationProperties(KeyProperties.class)
-public class EncryptionBootstrapConfiguration {
+public class EncryptionBootstrapConfiguration implements DisposableBean {
 
 	@Autowired(required = false)
 	private TextEncryptor encryptor;
@@ -50,6 +51,8 @@ public class EncryptionBootstrapConfiguration {
 	@Autowired
 	private KeyProperties key;
 
+	private DecryptionCache cache;
+
 	@Configuration
 	@Conditional(KeyCondition.class)
 	@ConditionalOnClass(RsaSecretEncryptor.class)
@@ -70,7 +73,8 @@ public class EncryptionBootstrapConfiguration {
 										this.key.getRsa().getAlgorithm(), this.key.getRsa().getSalt(), this.key.getRsa()
 										.isStrong());
 			}
-			return new EncryptorFactory().create(this.key.getKey());
+			return new EncryptorFactory().create(this.key.getKey(),
+					this.key.getAesMode());
 		}
 
 	}
@@ -86,7 +90,8 @@ public class EncryptionBootstrapConfiguration {
 		@Bean
 		@ConditionalOnMissingBean(TextEncryptor.class)
 		public TextEncryptor textEncryptor() {
-			return new EncryptorFactory().create(this.key.getKey());
+			return new EncryptorFactory().create(this.key.getKey(),
+					this.key.getAesMode());
 		}
 
 	}
@@ -99,9 +104,55 @@ public class EncryptionBootstrapConfiguration {
 		EnvironmentDecryptApplicationInitializer listener = new EnvironmentDecryptApplicationInitializer(
 				this.encryptor);
 		listener.setFailOnError(this.key.isFailOnError());
+		listener.setLazy(this.key.isLazy());
+		listener.setCacheSize(this.key.getCacheSize());
+		listener.setParallel(this.key.isParallel());
+		String id = getCacheId();
+		if (id != null) {
+			// Shared with the bootstrap context that is created on a refresh
+			this.cache = DecryptionCache.shared(id, this.key.getCacheSize());
+			listener.setCache(this.cache);
+		}
 		return listener;
 	}
 
+	@Override
+	public void destroy() {
+		if (this.cache != null) {
+			this.cache.release();
+			this.cache = null;
+		}
+	}
+
+	/**
+	 * An id for the key that values are decrypted with (if known), so that decrypted
+	 * values can be re-used as long as the key is the same.
+	 */
+	private String getCacheId() {
+		if (this.encryptor instanceof FailsafeTextEncryptor) {
+			return null;
+		}
+		KeyStore keyStore = this.key.getKeyStore();
+		if (this.key.getKey() == null && keyStore.getLocation() == null) {
+			return null;
+		}
+		StringBuilder id = new StringBuilder(this.encryptor.getClass().getName());
+		id.append("|").append(this.key.getKey());
+		id.append("|").append(this.key.getAesMode());
+		if (keyStore.getLocation() != null) {
+			id.append("|").append(keyStore.getLocation().getDescription());
+			id.append("|").append(keyStore.getAlias());
+			id.append("|").append(keyStore.getPassword());
+			id.append("|").append(keyStore.getSecret());
+		}
+		if (this.key.getRsa() != null) {
+			id.append("|").append(this.key.getRsa().getAlgorithm());
+			id.append("|").append(this.key.getRsa().getSalt());
+			id.append("|").append(this.key.getRsa().isStrong());
+		}
+		return id.toString();
+	}
+
 	public static class KeyCondition extends SpringBootCondition {
 
 		@Override
@@ -21,6 +21,9 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -28,6 +31,7 @@ import org.springframework.cloud.bootstrap.BootstrapApplicationListener;
 import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ApplicationListener;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.core.Ordered;
 import org.springframework.core.env.CompositePropertySource;
@@ -62,6 +66,14 @@ public class EnvironmentDecryptApplicationInitializer implements
 
 	private boolean failOnError = true;
 
+	private boolean lazy = false;
+
+	private boolean parallel = false;
+
+	private DecryptionCache cache = new DecryptionCache(1000);
+
+	private final List<DecryptingPropertySource> lazySources = new CopyOnWriteArrayList<>();
+
 	/**
 	 * Strategy to determine how to handle exceptions during decryption.
 	 *
@@ -71,6 +83,53 @@ public class EnvironmentDecryptApplicationInitializer implements
 		this.failOnError = failOnError;
 	}
 
+	/**
+	 * Flag to say that values should only be decrypted when they are first requested
+	 * from the environment, instead of all at once in {@link #initialize}. Errors are
+	 * then only reported when the property is used.
+	 *
+	 * @param lazy the flag value (default false)
+	 */
+	public void setLazy(boolean lazy) {
+		this.lazy = lazy;
+	}
+
+	/**
+	 * The maximum number of decrypted values to keep in memory. Values that are evicted
+	 * are decrypted again when they are next used.
+	 *
+	 * @param cacheSize the cache size (default 1000)
+	 */
+	public void setCacheSize(int cacheSize) {
+		this.cache = new DecryptionCache(cacheSize);
+	}
+
+	/**
+	 * The cache for decrypted values. Use a {@link DecryptionCache#shared(String, int)
+	 * shared} cache to avoid decrypting values that have not changed when a refresh
+	 * creates a new initializer.
+	 *
+	 * @param cache the cache to use
+	 */
+	public void setCache(DecryptionCache cache) {
+		this.cache = cache;
+	}
+
+	public DecryptionCache getCache() {
+		return this.cache;
+	}
+
+	/**
+	 * Flag to say that (eager) decryption should use all the available processors, which
+	 * can speed up startup a lot with many values encrypted with RSA. The encryptor has
+	 * to be thread safe.
+	 *
+	 * @param parallel the flag value (default false)
+	 */
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
+
 	public EnvironmentDecryptApplicationInitializer(TextEncryptor encryptor) {
 		this.encryptor = encryptor;
 	}
@@ -91,23 +150,33 @@ public class EnvironmentDecryptApplicationInitializer implements
 		MutablePropertySources propertySources = environment.getPropertySources();
 
 		Set<String> found = new LinkedHashSet<>();
-		Map<String, Object> map = decrypt(propertySources);
+		Map<String, Object> map = this.lazy ? ciphers(propertySources)
+				: decrypt(propertySources);
 		if (!map.isEmpty()) {
 			// We have some decrypted properties
 			found.addAll(map.keySet());
 			insert(applicationContext,
-					new SystemEnvironmentPropertySource(DECRYPTED_PROPERTY_SOURCE_NAME, map));
+					propertySource(DECRYPTED_PROPERTY_SOURCE_NAME, map));
 		}
 		PropertySource<?> bootstrap = propertySources
 				.get(BootstrapApplicationListener.BOOTSTRAP_PROPERTY_SOURCE_NAME);
 		if (bootstrap != null) {
-			map = decrypt(bootstrap);
+			map = new LinkedHashMap<String, Object>();
+			if (this.lazy) {
+				collect(bootstrap, map);
+			}
+			else {
+				decrypt(bootstrap, map);
+			}
 			if (!map.isEmpty()) {
 				found.addAll(map.keySet());
-				insert(applicationContext, new SystemEnvironmentPropertySource(
-						DECRYPTED_BOOTSTRAP_PROPERTY_SOURCE_NAME, map));
+				insert(applicationContext,
+						propertySource(DECRYPTED_BOOTSTRAP_PROPERTY_SOURCE_NAME, map));
 			}
 		}
+		if (this.lazy && !found.isEmpty()) {
+			applicationContext.addApplicationListener(new Invalidator());
+		}
 		if (!found.isEmpty()) {
 			ApplicationContext parent = applicationContext.getParent();
 			if (parent != null) {
@@ -154,25 +223,69 @@ public class EnvironmentDecryptApplicationInitializer implements
 		}
 	}
 
+	private SystemEnvironmentPropertySource propertySource(String name,
+			Map<String, Object> map) {
+		if (this.lazy) {
+			DecryptingPropertySource source = new DecryptingPropertySource(name, map);
+			this.lazySources.add(source);
+			return source;
+		}
+		return new SystemEnvironmentPropertySource(name, map);
+	}
+
 	public Map<String, Object> decrypt(PropertySources propertySources) {
-		Map<String, Object> overrides = new LinkedHashMap<String, Object>();
+		Map<String, Object> overrides = ciphers(propertySources);
+		decryptAll(overrides);
+		return overrides;
+	}
+
+	private void decrypt(PropertySource<?> source, Map<String, Object> overrides) {
+		collect(source, overrides);
+		decryptAll(overrides);
+	}
+
+	/**
+	 * Replace the cipher texts in the map with the decrypted values, keeping the order.
+	 */
+	private void decryptAll(Map<String, Object> ciphers) {
+		if (!this.parallel || ciphers.size() < 2) {
+			for (Map.Entry<String, Object> entry : ciphers.entrySet()) {
+				entry.setValue(decrypt(entry.getKey(), (String) entry.getValue()));
+			}
+			return;
+		}
+		String[] keys = ciphers.keySet().toArray(new String[ciphers.size()]);
+		String[] values = ciphers.values().toArray(new String[ciphers.size()]);
+		ForkJoinPool pool = new ForkJoinPool(Math.min(keys.length,
+				Runtime.getRuntime().availableProcessors()));
+		try {
+			pool.invoke(new DecryptTask(keys, values, 0, keys.length));
+		}
+		finally {
+			pool.shutdown();
+		}
+		for (int i = 0; i < keys.length; i++) {
+			ciphers.put(keys[i], values[i]);
+		}
+	}
+
+	/**
+	 * Find the cipher texts (without the prefix) for all the encrypted values, with the
+	 * ones from property sources with higher precedence winning.
+	 */
+	private Map<String, Object> ciphers(PropertySources propertySources) {
+		Map<String, Object> ciphers = new LinkedHashMap<String, Object>();
 		List<PropertySource<?>> sources = new ArrayList<PropertySource<?>>();
 		for (PropertySource<?> source : propertySources) {
 			sources.add(0, source);
 		}
 		for (PropertySource<?> source : sources) {
-			decrypt(source, overrides);
+			collect(source, ciphers);
 		}
-		return overrides;
+		return ciphers;
 	}
 
-	private Map<String, Object> decrypt(PropertySource<?> source) {
-		Map<String, Object> overrides = new LinkedHashMap<String, Object>();
-		decrypt(source, overrides);
-		return overrides;
-	}
-
-	private void decrypt(PropertySource<?> source, Map<String, Object> overrides) {
+	private void collect(PropertySource<?> source, Map<String, Object> ciphers) {
 
 		if (source instanceof EnumerablePropertySource) {
 
@@ -182,29 +295,7 @@ public class EnvironmentDecryptApplicationInitializer implements
 				if (property != null) {
 					String value = property.toString();
 					if (value.startsWith("{cipher}")) {
-						value = value.substring("{cipher}".length());
-						try {
-							value = this.encryptor.decrypt(value);
-							if (logger.isDebugEnabled()) {
-								logger.debug("Decrypted: key=" + key);
-							}
-						}
-						catch (Exception e) {
-							String message = "Cannot decrypt: key=" + key;
-							if (this.failOnError) {
-								throw new IllegalStateException(message, e);
-							}
-							if (logger.isDebugEnabled()) {
-								logger.warn(message, e);
-							}
-							else {
-								logger.warn(message);
-							}
-							// Set value to empty to avoid making a password out of the
-							// cipher text
-							value = "";
-						}
-						overrides.put(key, value);
+						ciphers.put(key, value.substring("{cipher}".length()));
 					}
 				}
 			}
@@ -214,9 +305,126 @@ public class EnvironmentDecryptApplicationInitializer implements
 
 			for (PropertySource<?> nested : ((CompositePropertySource) source)
 					.getPropertySources()) {
-				decrypt(nested, overrides);
+				collect(nested, ciphers);
+			}
+
+		}
+
+	}
+
+	private String decrypt(String key, String cipher) {
+		String value = this.cache.get(cipher);
+		if (value != null) {
+			return value;
+		}
+		try {
+			value = this.encryptor.decrypt(cipher);
+			if (logger.isDebugEnabled()) {
+				logger.debug("Decrypted: key=" + key);
+			}
+			this.cache.put(cipher, value);
+			return value;
+		}
+		catch (Exception e) {
+			String message = "Cannot decrypt: key=" + key;
+			if (this.failOnError) {
+				throw new IllegalStateException(message, e);
+			}
+			if (logger.isDebugEnabled()) {
+				logger.warn(message, e);
+			}
+			else {
+				logger.warn(message);
+			}
+			// Set value to empty to avoid making a password out of the cipher text
+			return "";
+		}
+	}
+
+	/**
+	 * Decrypts a range of values in place, splitting it in half until it is small enough.
+	 */
+	@SuppressWarnings("serial")
+	private class DecryptTask extends RecursiveAction {
+
+		private static final int THRESHOLD = 8;
+
+		private final String[] keys;
+
+		private final String[] values;
+
+		private final int start;
+
+		private final int end;
+
+		DecryptTask(String[] keys, String[] values, int start, int end) {
+			this.keys = keys;
+			this.values = values;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		protected void compute() {
+			if (this.end - this.start <= THRESHOLD) {
+				for (int i = this.start; i < this.end; i++) {
+					this.values[i] = decrypt(this.keys[i], this.values[i]);
+				}
+				return;
+			}
+			int middle = (this.start + this.end) >>> 1;
+			invokeAll(new DecryptTask(this.keys, this.values, this.start, middle),
+					new DecryptTask(this.keys, this.values, middle, this.end));
+		}
+
+	}
+
+	/**
+	 * Property source with the cipher texts of encrypted values, that decrypts them when
+	 * they are first requested (the plain text is kept in the cache).
+	 */
+	private class DecryptingPropertySource extends SystemEnvironmentPropertySource {
+
+		DecryptingPropertySource(String name, Map<String, Object> ciphers) {
+			super(name, ciphers);
+		}
+
+		@Override
+		public Object getProperty(String name) {
+			String cipher = getCipher(name);
+			if (cipher == null) {
+				return null;
 			}
+			return decrypt(name, cipher);
+		}
+
+		@Override
+		public boolean containsProperty(String name) {
+			return getCipher(name) != null;
+		}
+
+		String getCipher(String name) {
+			return (String) super.getProperty(name);
+		}
+
+	}
 
+	/**
+	 * Evicts the plain text of values that have changed, so it is not kept in memory
+	 * after the property sources that it came from have been replaced.
+	 */
+	private class Invalidator implements ApplicationListener<EnvironmentChangeEvent> {
+
+		@Override
+		public void onApplicationEvent(EnvironmentChangeEvent event) {
+			for (String key : event.getKeys()) {
+				for (DecryptingPropertySource source : EnvironmentDecryptApplicationInitializer.this.lazySources) {
+					String cipher = source.getCipher(key);
+					if (cipher != null) {
+						EnvironmentDecryptApplicationInitializer.this.cache.evict(cipher);
+					}
+				}
+			}
 		}
 
 	}
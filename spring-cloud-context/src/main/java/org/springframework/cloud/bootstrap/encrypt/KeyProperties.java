@@ -16,6 +16,7 @@
 package org.springframework.cloud.bootstrap.encrypt;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.cloud.context.encrypt.AesMode;
 import org.springframework.core.io.Resource;
 import org.springframework.security.rsa.crypto.RsaAlgorithm;
 import org.springframework.util.ClassUtils;
@@ -28,12 +29,38 @@ public class KeyProperties {
 	 */
 	private String key;
 
+	/**
+	 * The block cipher mode for a symmetric key. GCM is faster on most modern JVMs (and
+	 * authenticated), but values encrypted with one mode cannot be decrypted with the
+	 * other. GCM requires Java 8 or later.
+	 */
+	private AesMode aesMode = AesMode.CBC;
+
 	/**
 	 * Flag to say that a process should fail if there is an encryption or decryption
 	 * error.
 	 */
 	private boolean failOnError = true;
 
+	/**
+	 * Flag to say that encrypted values should be decrypted when they are first used,
+	 * instead of all at once on startup. Decryption errors are then only reported when a
+	 * value is used.
+	 */
+	private boolean lazy = false;
+
+	/**
+	 * The maximum number of decrypted values to cache in memory (so that values that have
+	 * not changed are not decrypted again on a refresh).
+	 */
+	private int cacheSize = 1000;
+
+	/**
+	 * Flag to say that encrypted values should be decrypted in parallel on startup (on
+	 * all the available processors).
+	 */
+	private boolean parallel = false;
+
 	/**
 	 * The key store properties for locating a key in a Java Key Store (a file in a format
 	 * defined and understood by the JVM).
@@ -63,6 +90,38 @@ public class KeyProperties {
 		this.failOnError = failOnError;
 	}
 
+	public boolean isLazy() {
+		return this.lazy;
+	}
+
+	public void setLazy(boolean lazy) {
+		this.lazy = lazy;
+	}
+
+	public int getCacheSize() {
+		return this.cacheSize;
+	}
+
+	public void setCacheSize(int cacheSize) {
+		this.cacheSize = cacheSize;
+	}
+
+	public boolean isParallel() {
+		return this.parallel;
+	}
+
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
+
+	public AesMode getAesMode() {
+		return this.aesMode;
+	}
+
+	public void setAesMode(AesMode aesMode) {
+		this.aesMode = aesMode;
+	}
+
 	public String getKey() {
 		return this.key;
 	}
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.context.config;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.cloud.context.config.StripedBeanLifecycleDecorator.DisposalGuard;
+
+/**
+ * A {@link BeanLifecycleDecorator} with the same contract as the
+ * {@link StandardBeanLifecycleDecorator} (concurrent method calls are allowed unless the
+ * bean is being destroyed, and the destruction callback waits for calls in flight to
+ * complete), but which avoids a single shared reader count. Each calling thread is
+ * assigned to one of several padded counter stripes, so that method calls on a bean from
+ * different cores do not contend on the same cache line. The destruction callback raises
+ * a flag, waits for all the stripes to drain, runs, and then lets callers through again.
+ * If the bean has no destruction callback the guard and associated proxies are never
+ * created.
+ *
+ * @author Venil Noronha
+ *
+ */
+public class StripedBeanLifecycleDecorator implements BeanLifecycleDecorator<DisposalGuard> {
+
+	private final boolean proxyTargetClass;
+
+	private final int stripes;
+
+	public StripedBeanLifecycleDecorator(boolean proxyTargetClass) {
+		this(proxyTargetClass, 2 * Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @param proxyTargetClass flag to indicate that proxies should be created for the
+	 * concrete type of the bean
+	 * @param stripes the number of counters to spread calling threads over (rounded up to
+	 * a power of 2)
+	 */
+	public StripedBeanLifecycleDecorator(boolean proxyTargetClass, int stripes) {
+		this.proxyTargetClass = proxyTargetClass;
+		int size = 1;
+		while (size < stripes) {
+			size <<= 1;
+		}
+		this.stripes = size;
+	}
+
+	@Override
+	public Object decorateBean(Object bean, Context<DisposalGuard> context) {
+		if (context != null) {
+			bean = getDisposalGuardProxy(bean, context.getAuxiliary());
+		}
+		return bean;
+	}
+
+	@Override
+	public Context<DisposalGuard> decorateDestructionCallback(final Runnable callback) {
+		if (callback == null) {
+			return null;
+		}
+		final DisposalGuard guard = new DisposalGuard(this.stripes);
+		return new Context<DisposalGuard>(new Runnable() {
+			@Override
+			public void run() {
+				guard.drain();
+				try {
+					callback.run();
+				}
+				finally {
+					guard.release();
+				}
+			}
+		}, guard);
+	}
+
+	private Object getDisposalGuardProxy(Object bean, final DisposalGuard guard) {
+		ProxyFactory factory = new ProxyFactory(bean);
+		factory.setProxyTargetClass(this.proxyTargetClass);
+		factory.addAdvice(new MethodInterceptor() {
+			@Override
+			public Object invoke(MethodInvocation invocation) throws Throwable {
+				int stripe = guard.enter();
+				try {
+					return invocation.proceed();
+				}
+				finally {
+					guard.exit(stripe);
+				}
+			}
+		});
+		return factory.getProxy();
+	}
+
+	/**
+	 * Striped counter of method calls in flight on a single bean instance, plus the
+	 * state needed to hold new calls back while the bean is destroyed. Calls made by a
+	 * thread that is already inside a call (e.g. through the scoped proxy) are let
+	 * through even while draining, like a reentrant read lock, since the outer call is
+	 * still counted.
+	 */
+	public static class DisposalGuard {
+
+		/**
+		 * Number of longs between the counters used by adjacent stripes, so that each
+		 * stripe sits on its own cache line (assuming lines of 64 or 128 bytes).
+		 */
+		private static final int PADDING = 16;
+
+		/**
+		 * Returned by {@link #enter()} for a nested call, which is not counted.
+		 */
+		private static final int NESTED = -1;
+
+		private final AtomicLongArray counts;
+
+		private final int mask;
+
+		private final ReentrantLock destroyLock = new ReentrantLock();
+
+		private final Condition drained = this.destroyLock.newCondition();
+
+		private final Condition released = this.destroyLock.newCondition();
+
+		private final ThreadLocal<int[]> depth = new ThreadLocal<int[]>() {
+			@Override
+			protected int[] initialValue() {
+				return new int[1];
+			}
+		};
+
+		private volatile boolean draining = false;
+
+		DisposalGuard(int stripes) {
+			this.counts = new AtomicLongArray(stripes * PADDING);
+			this.mask = stripes - 1;
+		}
+
+		int enter() {
+			int[] depth = this.depth.get();
+			if (depth[0]++ > 0) {
+				return NESTED;
+			}
+			int stripe = stripe();
+			while (true) {
+				this.counts.incrementAndGet(stripe);
+				if (!this.draining || this.destroyLock.isHeldByCurrentThread()) {
+					return stripe;
+				}
+				// Back out and wait for the destruction callback to finish
+				this.counts.decrementAndGet(stripe);
+				this.destroyLock.lock();
+				try {
+					this.drained.signalAll();
+					while (this.draining) {
+						this.released.awaitUninterruptibly();
+					}
+				}
+				finally {
+					this.destroyLock.unlock();
+				}
+			}
+		}
+
+		void exit(int stripe) {
+			this.depth.get()[0]--;
+			if (stripe == NESTED) {
+				return;
+			}
+			this.counts.decrementAndGet(stripe);
+			if (this.draining) {
+				this.destroyLock.lock();
+				try {
+					this.drained.signalAll();
+				}
+				finally {
+					this.destroyLock.unlock();
+				}
+			}
+		}
+
+		void drain() {
+			this.destroyLock.lock();
+			this.draining = true;
+			// Calls in flight on this thread will not finish until we return
+			long own = this.depth.get()[0] > 0 ? 1 : 0;
+			while (inFlight() > own) {
+				this.drained.awaitUninterruptibly();
+			}
+		}
+
+		void release() {
+			this.draining = false;
+			this.released.signalAll();
+			this.destroyLock.unlock();
+		}
+
+		long inFlight() {
+			long total = 0;
+			for (int i = 0; i <= this.mask; i++) {
+				total += this.counts.get(i * PADDING);
+			}
+			return total;
+		}
+
+		private int stripe() {
+			long id = Thread.currentThread().getId();
+			int hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+			return ((hash ^ (hash >>> 16)) & this.mask) * PADDING;
+		}
+
+	}
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.context.encrypt;
+
+import java.security.GeneralSecurityException;
+import java.security.spec.AlgorithmParameterSpec;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.IvParameterSpec;
+
+/**
+ * Block cipher modes for symmetric (AES) encryption with a key from
+ * {@link EncryptorFactory}.
+ *
+ * @author Venil Noronha
+ *
+ */
+public enum AesMode {
+
+	/**
+	 * CBC with PKCS5 padding, the same as
+	 * {@link org.springframework.security.crypto.encrypt.Encryptors#text(CharSequence, CharSequence)
+	 * Encryptors.text()} (the default).
+	 */
+	CBC("AES/CBC/PKCS5Padding") {
+		@Override
+		AlgorithmParameterSpec parameters(byte[] iv) {
+			return new IvParameterSpec(iv);
+		}
+	},
+
+	/**
+	 * GCM (authenticated, and faster on JVMs with AES and carry-less multiplication
+	 * intrinsics), the same as
+	 * {@link org.springframework.security.crypto.encrypt.Encryptors#delux(CharSequence, CharSequence)
+	 * Encryptors.delux()} in newer versions of Spring Security. Requires Java 8 or later
+	 * (or a JCE provider that supports GCM), since the SunJCE provider in Java 7 does
+	 * not.
+	 */
+	GCM("AES/GCM/NoPadding") {
+		@Override
+		AlgorithmParameterSpec parameters(byte[] iv) {
+			return new GCMParameterSpec(128, iv);
+		}
+	};
+
+	private final String transformation;
+
+	AesMode(String transformation) {
+		this.transformation = transformation;
+	}
+
+	String getTransformation() {
+		return this.transformation;
+	}
+
+	abstract AlgorithmParameterSpec parameters(byte[] iv);
+
+	/**
+	 * Check that there is a JCE provider for this mode, so that a missing one is reported
+	 * when the encryptor is created and not on the first decryption.
+	 *
+	 * @throws IllegalStateException if there is no provider
+	 */
+	void checkAvailable() {
+		try {
+			Cipher.getInstance(this.transformation);
+		}
+		catch (GeneralSecurityException e) {
+			throw new IllegalStateException("No JCE provider for " + this.transformation
+					+ ": AES mode " + name() + " requires Java 8 or later, or a provider"
+					+ " that supports it", e);
+		}
+	}
+
+}
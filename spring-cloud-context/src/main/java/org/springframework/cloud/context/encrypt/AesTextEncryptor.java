@@ -0,0 +1,118 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.context.encrypt;
+
+import java.nio.charset.Charset;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.security.crypto.codec.Hex;
+import org.springframework.security.crypto.encrypt.Encryptors;
+import org.springframework.security.crypto.encrypt.TextEncryptor;
+
+/**
+ * A {@link TextEncryptor} with the same format as {@link Encryptors#text(CharSequence,
+ * CharSequence)} (256 bit AES with a PBKDF2 key and a random IV, hex encoded), that
+ * derives the key once and keeps a {@link Cipher} per thread, so that it can be used
+ * concurrently without locking. The block cipher mode is CBC by default, or GCM.
+ *
+ * @author Venil Noronha
+ *
+ */
+class AesTextEncryptor implements TextEncryptor {
+
+	private static final int IV_LENGTH = 16;
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private final SecretKey key;
+
+	private final AesMode mode;
+
+	private final SecureRandom random = new SecureRandom();
+
+	private final ThreadLocal<Cipher> ciphers = new ThreadLocal<Cipher>() {
+		@Override
+		protected Cipher initialValue() {
+			try {
+				return Cipher.getInstance(AesTextEncryptor.this.mode.getTransformation());
+			}
+			catch (GeneralSecurityException e) {
+				throw new IllegalStateException("Cannot create cipher: "
+						+ AesTextEncryptor.this.mode.getTransformation(), e);
+			}
+		}
+	};
+
+	AesTextEncryptor(String password, String salt) {
+		this(password, salt, AesMode.CBC);
+	}
+
+	AesTextEncryptor(String password, String salt, AesMode mode) {
+		mode.checkAvailable();
+		this.mode = mode;
+		try {
+			SecretKey secret = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA1")
+					.generateSecret(new PBEKeySpec(password.toCharArray(),
+							Hex.decode(salt), 1024, 256));
+			this.key = new SecretKeySpec(secret.getEncoded(), "AES");
+		}
+		catch (GeneralSecurityException e) {
+			throw new IllegalArgumentException("Cannot create key", e);
+		}
+	}
+
+	@Override
+	public String encrypt(String text) {
+		byte[] iv = new byte[IV_LENGTH];
+		this.random.nextBytes(iv);
+		byte[] encrypted = doFinal(Cipher.ENCRYPT_MODE, iv, text.getBytes(UTF_8));
+		byte[] result = Arrays.copyOf(iv, IV_LENGTH + encrypted.length);
+		System.arraycopy(encrypted, 0, result, IV_LENGTH, encrypted.length);
+		return new String(Hex.encode(result));
+	}
+
+	@Override
+	public String decrypt(String encryptedText) {
+		byte[] bytes = Hex.decode(encryptedText);
+		if (bytes.length < IV_LENGTH) {
+			throw new IllegalArgumentException("Encrypted text is too short");
+		}
+		byte[] iv = Arrays.copyOfRange(bytes, 0, IV_LENGTH);
+		byte[] encrypted = Arrays.copyOfRange(bytes, IV_LENGTH, bytes.length);
+		return new String(doFinal(Cipher.DECRYPT_MODE, iv, encrypted), UTF_8);
+	}
+
+	private byte[] doFinal(int mode, byte[] iv, byte[] input) {
+		Cipher cipher = this.ciphers.get();
+		try {
+			cipher.init(mode, this.key, this.mode.parameters(iv));
+			return cipher.doFinal(input);
+		}
+		catch (GeneralSecurityException e) {
+			throw new IllegalStateException("Cannot invoke cipher", e);
+		}
+	}
+
+}
@@ -15,11 +15,22 @@
  */
 package org.springframework.cloud.context.encrypt;
 
-import org.springframework.security.crypto.encrypt.Encryptors;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+
+import org.springframework.security.crypto.codec.Hex;
 import org.springframework.security.crypto.encrypt.TextEncryptor;
 import org.springframework.security.rsa.crypto.RsaSecretEncryptor;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ConcurrentReferenceHashMap.ReferenceType;
 
 /**
+ * Creates a {@link TextEncryptor} from key material (an RSA private key or a symmetric
+ * key). The encryptors are thread safe and are cached, so the key material is only
+ * parsed once for each key.
+ *
  * @author Dave Syer
  *
  */
@@ -28,7 +39,35 @@ public class EncryptorFactory {
 	// TODO: expose as config property
 	private static final String SALT = "deadbeef";
 
+	/**
+	 * Encryptors by a hash of the key material (soft references, so they can be
+	 * discarded if memory is short).
+	 */
+	private static final Map<String, TextEncryptor> encryptors = new ConcurrentReferenceHashMap<>(
+			16, ReferenceType.SOFT);
+
 	public TextEncryptor create(String data) {
+		return create(data, AesMode.CBC);
+	}
+
+	/**
+	 * Create an encryptor for the key provided.
+	 *
+	 * @param data the key material
+	 * @param mode the block cipher mode to use if the key is a symmetric key
+	 * @return a text encryptor
+	 */
+	public TextEncryptor create(String data, AesMode mode) {
+		String fingerprint = mode + ":" + fingerprint(data);
+		TextEncryptor encryptor = encryptors.get(fingerprint);
+		if (encryptor == null) {
+			encryptor = doCreate(data, mode);
+			encryptors.put(fingerprint, encryptor);
+		}
+		return encryptor;
+	}
+
+	private TextEncryptor doCreate(String data, AesMode mode) {
 
 		TextEncryptor encryptor;
 		if (data.contains("RSA PRIVATE KEY")) {
@@ -45,12 +84,22 @@ public class EncryptorFactory {
 			throw new KeyFormatException();
 		}
 		else {
-			encryptor = Encryptors.text(data, SALT);
+			encryptor = new AesTextEncryptor(data, SALT, mode);
 		}
 
 		return encryptor;
 	}
 
+	private static String fingerprint(String data) {
+		try {
+			return new String(Hex.encode(MessageDigest.getInstance("SHA-256")
+					.digest(data.getBytes(Charset.forName("UTF-8")))));
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("No SHA-256 digest available", e);
+		}
+	}
+
 }
 
 
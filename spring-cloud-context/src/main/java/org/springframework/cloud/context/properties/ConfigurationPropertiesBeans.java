@@ -15,10 +15,12 @@
  */
 package org.springframework.cloud.context.properties;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.config.BeanPostProcessor;
@@ -29,6 +31,8 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.stereotype.Component;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.StringUtils;
 
 /**
  * Collects references to <code>@ConfigurationProperties</code> beans in the context and
@@ -41,10 +45,19 @@ import org.springframework.stereotype.Component;
 public class ConfigurationPropertiesBeans implements BeanPostProcessor,
 ApplicationContextAware {
 
+	/**
+	 * Marks a bean class without the annotation in the cache.
+	 */
+	private static final Object NO_ANNOTATION = new Object();
+
 	private ConfigurationBeanFactoryMetaData metaData;
 
 	private Map<String, Object> beans = new HashMap<String, Object>();
 
+	private Map<String, String> prefixes = new HashMap<String, String>();
+
+	private volatile PrefixTrie trie;
+
 	private ConfigurableListableBeanFactory beanFactory;
 
 	private String refreshScope;
@@ -53,6 +66,16 @@ ApplicationContextAware {
 
 	private ConfigurationPropertiesBeans parent;
 
+	/**
+	 * The <code>@ConfigurationProperties</code> annotation (or {@link #NO_ANNOTATION}) by
+	 * bean class, shared with child contexts.
+	 */
+	private Map<Class<?>, Object> annotations = new ConcurrentReferenceHashMap<Class<?>, Object>();
+
+	private final AtomicLong time = new AtomicLong();
+
+	private final AtomicLong count = new AtomicLong();
+
 	@Override
 	public void setApplicationContext(ApplicationContext applicationContext)
 			throws BeansException {
@@ -69,6 +92,8 @@ ApplicationContextAware {
 			if (names.length == 1) {
 				this.parent = (ConfigurationPropertiesBeans) listable.getBean(names[0]);
 				this.beans.putAll(this.parent.beans);
+				this.prefixes.putAll(this.parent.prefixes);
+				this.annotations = this.parent.annotations;
 			}
 		}
 	}
@@ -83,22 +108,53 @@ ApplicationContextAware {
 	@Override
 	public Object postProcessBeforeInitialization(Object bean, String beanName)
 			throws BeansException {
-		if (isRefreshScoped(beanName)) {
+		long start = System.nanoTime();
+		try {
+			ConfigurationProperties annotation = findAnnotation(bean.getClass());
+			if (annotation == null && this.metaData != null) {
+				annotation = this.metaData.findFactoryAnnotation(beanName,
+						ConfigurationProperties.class);
+			}
+			// Only look at the bean definition if it is a candidate
+			if (annotation != null && !isRefreshScoped(beanName)) {
+				this.beans.put(beanName, bean);
+				this.prefixes.put(beanName, StringUtils.hasText(annotation.value())
+						? annotation.value() : annotation.prefix());
+				this.trie = null;
+			}
 			return bean;
 		}
-		ConfigurationProperties annotation = AnnotationUtils.findAnnotation(
-				bean.getClass(), ConfigurationProperties.class);
-		if (annotation != null) {
-			this.beans.put(beanName, bean);
+		finally {
+			this.time.addAndGet(System.nanoTime() - start);
+			this.count.incrementAndGet();
 		}
-		else if (this.metaData != null) {
-			annotation = this.metaData.findFactoryAnnotation(beanName,
-					ConfigurationProperties.class);
-			if (annotation != null) {
-				this.beans.put(beanName, bean);
-			}
+	}
+
+	private ConfigurationProperties findAnnotation(Class<?> type) {
+		// A single get: the entries are softly referenced, so can go at any time
+		Object cached = this.annotations.get(type);
+		if (cached != null) {
+			return cached == NO_ANNOTATION ? null : (ConfigurationProperties) cached;
 		}
-		return bean;
+		ConfigurationProperties annotation = AnnotationUtils.findAnnotation(type,
+				ConfigurationProperties.class);
+		this.annotations.put(type, annotation == null ? NO_ANNOTATION : annotation);
+		return annotation;
+	}
+
+	/**
+	 * @return the total time spent post-processing beans (in this context) in
+	 * nanoseconds
+	 */
+	public long getPostProcessingTime() {
+		return this.time.get();
+	}
+
+	/**
+	 * @return the number of beans post-processed (in this context)
+	 */
+	public long getPostProcessingCount() {
+		return this.count.get();
 	}
 
 	private boolean isRefreshScoped(String beanName) {
@@ -129,4 +185,82 @@ ApplicationContextAware {
 		return new HashSet<String>(this.beans.keySet());
 	}
 
+	/**
+	 * The names of the beans that might bind to any of the keys provided, i.e. the ones
+	 * whose prefix is the start of a key, or that have a key as the start of their
+	 * prefix.
+	 *
+	 * @param keys some property keys
+	 * @return the names of the beans that need to be re-bound if the keys change
+	 */
+	public Set<String> getBeanNames(Collection<String> keys) {
+		PrefixTrie trie = this.trie;
+		if (trie == null) {
+			trie = new PrefixTrie();
+			for (Map.Entry<String, String> entry : this.prefixes.entrySet()) {
+				trie.add(entry.getValue(), entry.getKey());
+			}
+			this.trie = trie;
+		}
+		Set<String> names = new HashSet<String>();
+		for (String key : keys) {
+			if (key.contains("_")) {
+				// Could be a relaxed name for anything (e.g. an environment variable)
+				return getBeanNames();
+			}
+			trie.collect(key, names);
+		}
+		names.retainAll(this.beans.keySet());
+		return names;
+	}
+
+	/**
+	 * Bean names indexed by the segments of their (normalized) prefix.
+	 */
+	private static class PrefixTrie {
+
+		private final Map<String, PrefixTrie> children = new HashMap<String, PrefixTrie>();
+
+		private final Set<String> names = new HashSet<String>();
+
+		public void add(String prefix, String name) {
+			PrefixTrie node = this;
+			for (String segment : segments(prefix)) {
+				PrefixTrie child = node.children.get(segment);
+				if (child == null) {
+					child = new PrefixTrie();
+					node.children.put(segment, child);
+				}
+				node = child;
+			}
+			node.names.add(name);
+		}
+
+		public void collect(String key, Set<String> result) {
+			PrefixTrie node = this;
+			for (String segment : segments(key)) {
+				result.addAll(node.names);
+				node = node.children.get(segment);
+				if (node == null) {
+					return;
+				}
+			}
+			node.collectAll(result);
+		}
+
+		private void collectAll(Set<String> result) {
+			result.addAll(this.names);
+			for (PrefixTrie child : this.children.values()) {
+				child.collectAll(result);
+			}
+		}
+
+		private static String[] segments(String key) {
+			String normalized = key.replace("-", "").replace("[", ".").replace("]", "")
+					.toLowerCase();
+			return StringUtils.tokenizeToStringArray(normalized, ".");
+		}
+
+	}
+
 }
@@ -15,12 +15,26 @@
  */
 package org.springframework.cloud.context.properties;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.ConfigurationPropertiesBindingPostProcessor;
 import org.springframework.cloud.context.config.annotation.RefreshScope;
@@ -28,7 +42,10 @@ import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 import org.springframework.context.ApplicationListener;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.EnumerablePropertySource;
 import org.springframework.core.env.Environment;
+import org.springframework.core.env.PropertySource;
 import org.springframework.jmx.export.annotation.ManagedAttribute;
 import org.springframework.jmx.export.annotation.ManagedOperation;
 import org.springframework.jmx.export.annotation.ManagedResource;
@@ -48,8 +65,8 @@ import org.springframework.stereotype.Component;
  */
 @Component
 @ManagedResource
-public class ConfigurationPropertiesRebinder
-		implements ApplicationContextAware, ApplicationListener<EnvironmentChangeEvent> {
+public class ConfigurationPropertiesRebinder implements ApplicationContextAware,
+		ApplicationListener<EnvironmentChangeEvent>, DisposableBean {
 
 	private ConfigurationPropertiesBeans beans;
 
@@ -59,6 +76,8 @@ public class ConfigurationPropertiesRebinder
 
 	private Map<String, Exception> errors = new ConcurrentHashMap<>();
 
+	private Executor executor;
+
 	public ConfigurationPropertiesRebinder(
 			ConfigurationPropertiesBindingPostProcessor binder,
 			ConfigurationPropertiesBeans beans) {
@@ -72,6 +91,20 @@ public class ConfigurationPropertiesRebinder
 		this.applicationContext = applicationContext;
 	}
 
+	/**
+	 * Executor to rebind beans in parallel. Beans are rebound in stages, so that each one
+	 * is rebound after the ones that it depends on (directly or indirectly), and the
+	 * beans in a stage are rebound in parallel. The beans have to be safe to initialize
+	 * concurrently. If there is an error, the following stages are skipped. If it is an
+	 * {@link ExecutorService} it is shut down when the rebinder is destroyed. Default null
+	 * (rebind all the beans one by one in the calling thread).
+	 *
+	 * @param executor the executor to use
+	 */
+	public void setExecutor(Executor executor) {
+		this.executor = executor;
+	}
+
 	/**
 	 * A map of bean name to errors when instantiating the bean.
 	 *
@@ -84,9 +117,195 @@ public class ConfigurationPropertiesRebinder
 	@ManagedOperation
 	public void rebind() {
 		this.errors.clear();
-		for (String name : this.beans.getBeanNames()) {
-			rebind(name);
+		rebindBeans(this.beans.getBeanNames());
+	}
+
+	/**
+	 * Rebind the beans that might be bound to the keys provided, and the beans that
+	 * depend on them. Properties whose values are placeholders count as changed too,
+	 * since the values they resolve to might be different.
+	 *
+	 * @param keys the keys that have changed (empty to rebind all the beans)
+	 */
+	public void rebindKeys(Collection<String> keys) {
+		if (keys.isEmpty()) {
+			rebind();
+			return;
+		}
+		Set<String> all = this.beans.getBeanNames();
+		Set<String> names = this.beans.getBeanNames(withPlaceholders(keys));
+		if (names.size() < all.size()) {
+			names = withDependents(names, all);
+		}
+		// Errors from beans that are not rebound still stand
+		for (String name : names) {
+			this.errors.remove(name);
+		}
+		rebindBeans(names);
+	}
+
+	private void rebindBeans(Set<String> names) {
+		if (this.executor == null) {
+			for (String name : names) {
+				rebind(name);
+			}
+			return;
+		}
+		for (Set<String> stage : stages(names)) {
+			rebindConcurrently(stage);
+		}
+	}
+
+	private Collection<String> withPlaceholders(Collection<String> keys) {
+		if (this.applicationContext == null || !(this.applicationContext
+				.getEnvironment() instanceof ConfigurableEnvironment)) {
+			return keys;
+		}
+		Set<String> result = new LinkedHashSet<>(keys);
+		for (PropertySource<?> source : ((ConfigurableEnvironment) this.applicationContext
+				.getEnvironment()).getPropertySources()) {
+			if (source instanceof EnumerablePropertySource) {
+				EnumerablePropertySource<?> enumerable = (EnumerablePropertySource<?>) source;
+				for (String name : enumerable.getPropertyNames()) {
+					Object value = enumerable.getProperty(name);
+					if (value instanceof String && ((String) value).contains("${")) {
+						result.add(name);
+					}
+				}
+			}
+		}
+		return result;
+	}
+
+	private Set<String> withDependents(Set<String> names, Set<String> all) {
+		Set<String> result = new HashSet<>(names);
+		Map<String, Boolean> affected = new HashMap<>();
+		for (String name : all) {
+			if (dependsOn(name, names, affected, new HashSet<String>())) {
+				result.add(name);
+			}
+		}
+		return result;
+	}
+
+	private boolean dependsOn(String name, Set<String> names,
+			Map<String, Boolean> affected, Set<String> visiting) {
+		Boolean result = affected.get(name);
+		if (result != null) {
+			return result;
+		}
+		if (!visiting.add(name)) {
+			return false;
+		}
+		result = false;
+		for (String dependency : getDependencies(name)) {
+			if (names.contains(dependency)
+					|| dependsOn(dependency, names, affected, visiting)) {
+				result = true;
+				break;
+			}
 		}
+		visiting.remove(name);
+		affected.put(name, result);
+		return result;
+	}
+
+	private void rebindConcurrently(Set<String> names) {
+		List<FutureTask<Boolean>> tasks = new ArrayList<>();
+		for (final String name : names) {
+			FutureTask<Boolean> task = new FutureTask<>(new Callable<Boolean>() {
+				@Override
+				public Boolean call() throws Exception {
+					return rebind(name);
+				}
+			});
+			tasks.add(task);
+			try {
+				this.executor.execute(task);
+			}
+			catch (RejectedExecutionException e) {
+				task.run();
+			}
+		}
+		Throwable failure = null;
+		for (FutureTask<Boolean> task : tasks) {
+			try {
+				task.get();
+			}
+			catch (ExecutionException e) {
+				if (failure == null) {
+					failure = e.getCause();
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while rebinding", e);
+			}
+		}
+		if (failure instanceof RuntimeException) {
+			throw (RuntimeException) failure;
+		}
+		if (failure instanceof Error) {
+			throw (Error) failure;
+		}
+	}
+
+	/**
+	 * Group the bean names so that each bean comes in a later stage than the ones it
+	 * depends on.
+	 */
+	private List<Set<String>> stages(Set<String> names) {
+		Map<String, Integer> depths = new HashMap<>();
+		List<Set<String>> stages = new ArrayList<>();
+		for (String name : names) {
+			int depth = depth(name, names, depths, new HashSet<String>());
+			while (stages.size() <= depth) {
+				stages.add(new LinkedHashSet<String>());
+			}
+			stages.get(depth).add(name);
+		}
+		return stages;
+	}
+
+	/**
+	 * The length of the longest chain of dependencies from the bean with the name provided
+	 * to the beans to be rebound (counting only the ones to be rebound).
+	 */
+	private int depth(String name, Set<String> names, Map<String, Integer> depths,
+			Set<String> visiting) {
+		Integer depth = depths.get(name);
+		if (depth != null) {
+			return depth;
+		}
+		if (!visiting.add(name)) {
+			// Circular dependency
+			return 0;
+		}
+		int result = 0;
+		for (String dependency : getDependencies(name)) {
+			int value = depth(dependency, names, depths, visiting)
+					+ (names.contains(dependency) ? 1 : 0);
+			result = Math.max(result, value);
+		}
+		visiting.remove(name);
+		depths.put(name, result);
+		return result;
+	}
+
+	private Set<String> getDependencies(String name) {
+		Set<String> dependencies = new LinkedHashSet<>();
+		ApplicationContext context = this.applicationContext;
+		while (context != null) {
+			if (context
+					.getAutowireCapableBeanFactory() instanceof ConfigurableListableBeanFactory) {
+				dependencies.addAll(Arrays.asList(
+						((ConfigurableListableBeanFactory) context
+								.getAutowireCapableBeanFactory())
+										.getDependenciesForBean(name)));
+			}
+			context = context.getParent();
+		}
+		return dependencies;
 	}
 
 	@ManagedOperation
@@ -117,7 +336,14 @@ public class ConfigurationPropertiesRebinder
 
 	@Override
 	public void onApplicationEvent(EnvironmentChangeEvent event) {
-		rebind();
+		rebindKeys(event.getKeys());
+	}
+
+	@Override
+	public void destroy() {
+		if (this.executor instanceof ExecutorService) {
+			((ExecutorService) this.executor).shutdown();
+		}
 	}
 
 }
@@ -2,16 +2,25 @@ package org.springframework.cloud.context.refresh;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import org.springframework.boot.Banner.Mode;
 import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.config.ConfigFileApplicationListener;
+import org.springframework.cloud.bootstrap.config.PropertySourceBootstrapConfiguration;
+import org.springframework.cloud.bootstrap.config.PropertySourceLocator;
+import org.springframework.cloud.bootstrap.encrypt.EnvironmentDecryptApplicationInitializer;
 import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
 import org.springframework.cloud.context.scope.refresh.RefreshScope;
+import org.springframework.cloud.context.scope.refresh.RefreshScopeRefreshedEvent;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.Configuration;
@@ -22,6 +31,7 @@ import org.springframework.core.env.MapPropertySource;
 import org.springframework.core.env.MutablePropertySources;
 import org.springframework.core.env.PropertySource;
 import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.env.SystemEnvironmentPropertySource;
 import org.springframework.web.context.support.StandardServletEnvironment;
 
 /**
@@ -41,30 +51,64 @@ public class ContextRefresher {
 
 	private ConfigurableApplicationContext context;
 	private RefreshScope scope;
+	private boolean lightweight = false;
 
 	public ContextRefresher(ConfigurableApplicationContext context, RefreshScope scope) {
 		this.context = context;
 		this.scope = scope;
 	}
 
+	/**
+	 * Flag to say that the config files and remote property sources should be re-loaded
+	 * directly into a copy of the environment, instead of by starting a new (throwaway)
+	 * application with its own bootstrap context. Faster, but the bootstrap
+	 * configuration (e.g. bootstrap.properties and the list of
+	 * {@link PropertySourceLocator PropertySourceLocators}) is not re-loaded. Default
+	 * false.
+	 *
+	 * @param lightweight the flag to set
+	 */
+	public void setLightweight(boolean lightweight) {
+		this.lightweight = lightweight;
+	}
+
 	public synchronized Set<String> refresh() {
-		Map<String, Object> before = extract(
+		List<EnumerablePropertySource<?>> before = sources(
 				this.context.getEnvironment().getPropertySources());
 		addConfigFilesToEnvironment();
 		Set<String> keys = changes(before,
-				extract(this.context.getEnvironment().getPropertySources())).keySet();
+				sources(this.context.getEnvironment().getPropertySources()));
 		this.context.publishEvent(new EnvironmentChangeEvent(keys));
-		this.scope.refreshAll();
+		if (this.scope.isTargeted()) {
+			for (String name : this.scope.getBeansAffectedBy(keys)) {
+				this.scope.refresh(name);
+			}
+			// Listeners expect to hear about a refresh even if no bean was affected
+			this.context.publishEvent(new RefreshScopeRefreshedEvent());
+		}
+		else {
+			this.scope.refreshAll();
+		}
 		return keys;
 	}
 
-	private void addConfigFilesToEnvironment() {
+	/**
+	 * Re-load the external configuration and update the property sources in the
+	 * environment of the context. Property sources that have changed are expected to be
+	 * replaced with new instances rather than modified in place.
+	 */
+	protected void addConfigFilesToEnvironment() {
 		ConfigurableApplicationContext capture = null;
 		try {
 			StandardEnvironment environment = copyEnvironment(
 					this.context.getEnvironment());
-			capture = new SpringApplicationBuilder(Empty.class).bannerMode(Mode.OFF)
-					.web(false).environment(environment).run();
+			if (this.lightweight) {
+				reloadPropertySources(environment);
+			}
+			else {
+				capture = new SpringApplicationBuilder(Empty.class).bannerMode(Mode.OFF)
+						.web(false).environment(environment).run();
+			}
 			if (environment.getPropertySources().contains(REFRESH_ARGS_PROPERTY_SOURCE)) {
 				environment.getPropertySources().remove(REFRESH_ARGS_PROPERTY_SOURCE);
 			}
@@ -111,6 +155,48 @@ public class ContextRefresher {
 		}
 	}
 
+	/**
+	 * Re-load the config files and the property sources from the
+	 * {@link PropertySourceLocator PropertySourceLocators} in the bootstrap context
+	 * straight into the environment provided, instead of running a new (throwaway)
+	 * application and bootstrap context.
+	 */
+	private void reloadPropertySources(StandardEnvironment environment) {
+		new ConfigFileLoader().load(environment);
+		PropertySourceBootstrapConfiguration locators = findBean(
+				PropertySourceBootstrapConfiguration.class);
+		if (locators != null) {
+			locators.locatePropertySources(environment);
+		}
+		EnvironmentDecryptApplicationInitializer decrypter = findBean(
+				EnvironmentDecryptApplicationInitializer.class);
+		if (decrypter != null) {
+			Map<String, Object> map = decrypter
+					.decrypt(environment.getPropertySources());
+			if (!map.isEmpty()) {
+				environment.getPropertySources().addFirst(new SystemEnvironmentPropertySource(
+						EnvironmentDecryptApplicationInitializer.DECRYPTED_PROPERTY_SOURCE_NAME,
+						map));
+			}
+		}
+	}
+
+	/**
+	 * Find a bean of the type provided in the context, or the closest ancestor that has
+	 * one (the bootstrap beans are normally in the parent).
+	 */
+	private <T> T findBean(Class<T> type) {
+		ApplicationContext context = this.context;
+		while (context != null) {
+			String[] names = context.getBeanNamesForType(type, false, false);
+			if (names.length > 0) {
+				return context.getBean(names[0], type);
+			}
+			context = context.getParent();
+		}
+		return null;
+	}
+
 	// Don't use ConfigurableEnvironment.merge() in case there are clashes with property
 	// source names
 	private StandardEnvironment copyEnvironment(ConfigurableEnvironment input) {
@@ -127,11 +213,54 @@ public class ContextRefresher {
 		Map<String, Object> map = new HashMap<String, Object>();
 		map.put("spring.jmx.enabled", false);
 		map.put("spring.main.sources", "");
+		// The throwaway bootstrap context is closed afterwards, so it can't be shared
+		map.put("spring.cloud.bootstrap.cache", false);
 		capturedPropertySources
 		.addFirst(new MapPropertySource(REFRESH_ARGS_PROPERTY_SOURCE, map));
 		return environment;
 	}
 
+	/**
+	 * Compute the keys whose effective value differs between the two lists of property
+	 * sources (in order of precedence). Property sources are compared by identity, and
+	 * only the ones that were added or removed are enumerated, unless the unchanged ones
+	 * have been re-ordered, in which case all the values are compared.
+	 */
+	private Set<String> changes(List<EnumerablePropertySource<?>> before,
+			List<EnumerablePropertySource<?>> after) {
+		Set<PropertySource<?>> previous = identities(before);
+		Set<PropertySource<?>> current = identities(after);
+		if (!sameOrder(before, current, after, previous)) {
+			return changes(extract(before), extract(after)).keySet();
+		}
+		Set<String> candidates = new HashSet<String>();
+		for (EnumerablePropertySource<?> source : before) {
+			if (!current.contains(source)) {
+				candidates.addAll(Arrays.asList(source.getPropertyNames()));
+			}
+		}
+		for (EnumerablePropertySource<?> source : after) {
+			if (!previous.contains(source)) {
+				candidates.addAll(Arrays.asList(source.getPropertyNames()));
+			}
+		}
+		Map<PropertySource<?>, Set<String>> names = new IdentityHashMap<PropertySource<?>, Set<String>>();
+		Set<String> result = new HashSet<String>();
+		for (String key : candidates) {
+			PropertySource<?> one = find(before, key, names);
+			PropertySource<?> two = find(after, key, names);
+			if (one == null || two == null) {
+				if (one != two) {
+					result.add(key);
+				}
+			}
+			else if (!equal(one.getProperty(key), two.getProperty(key))) {
+				result.add(key);
+			}
+		}
+		return result;
+	}
+
 	private Map<String, Object> changes(Map<String, Object> before,
 			Map<String, Object> after) {
 		Map<String, Object> result = new HashMap<String, Object>();
@@ -161,40 +290,100 @@ public class ContextRefresher {
 		return one.equals(two);
 	}
 
-	private Map<String, Object> extract(MutablePropertySources propertySources) {
+	private Set<PropertySource<?>> identities(List<EnumerablePropertySource<?>> sources) {
+		Set<PropertySource<?>> result = Collections
+				.newSetFromMap(new IdentityHashMap<PropertySource<?>, Boolean>());
+		result.addAll(sources);
+		return result;
+	}
+
+	private boolean sameOrder(List<EnumerablePropertySource<?>> before,
+			Set<PropertySource<?>> current, List<EnumerablePropertySource<?>> after,
+			Set<PropertySource<?>> previous) {
+		Iterator<EnumerablePropertySource<?>> iterator = after.iterator();
+		for (EnumerablePropertySource<?> source : before) {
+			if (!current.contains(source)) {
+				continue;
+			}
+			PropertySource<?> next = null;
+			while (iterator.hasNext() && next == null) {
+				next = iterator.next();
+				if (!previous.contains(next)) {
+					next = null;
+				}
+			}
+			if (next != source) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private PropertySource<?> find(List<EnumerablePropertySource<?>> sources, String key,
+			Map<PropertySource<?>, Set<String>> names) {
+		for (EnumerablePropertySource<?> source : sources) {
+			if (source instanceof MapPropertySource) {
+				if (source.containsProperty(key)) {
+					return source;
+				}
+				continue;
+			}
+			// Other implementations might have to scan all their names to check for a key
+			Set<String> keys = names.get(source);
+			if (keys == null) {
+				keys = new HashSet<String>(Arrays.asList(source.getPropertyNames()));
+				names.put(source, keys);
+			}
+			if (keys.contains(key)) {
+				return source;
+			}
+		}
+		return null;
+	}
+
+	private Map<String, Object> extract(List<EnumerablePropertySource<?>> sources) {
 		Map<String, Object> result = new HashMap<String, Object>();
-		List<PropertySource<?>> sources = new ArrayList<PropertySource<?>>();
-		for (PropertySource<?> source : propertySources) {
-			sources.add(0, source);
+		for (int i = sources.size(); i-- > 0;) {
+			EnumerablePropertySource<?> source = sources.get(i);
+			for (String key : source.getPropertyNames()) {
+				result.put(key, source.getProperty(key));
+			}
 		}
-		for (PropertySource<?> source : sources) {
+		return result;
+	}
+
+	/**
+	 * Flatten the non-standard property sources (including the contents of composites)
+	 * into a list of enumerable sources in order of precedence.
+	 */
+	private List<EnumerablePropertySource<?>> sources(
+			MutablePropertySources propertySources) {
+		List<EnumerablePropertySource<?>> result = new ArrayList<EnumerablePropertySource<?>>();
+		for (PropertySource<?> source : propertySources) {
 			if (!this.standardSources.contains(source.getName())) {
-				extract(source, result);
+				sources(source, result);
 			}
 		}
 		return result;
 	}
 
-	private void extract(PropertySource<?> parent, Map<String, Object> result) {
+	private void sources(PropertySource<?> parent,
+			List<EnumerablePropertySource<?>> result) {
 		if (parent instanceof CompositePropertySource) {
 			try {
-				List<PropertySource<?>> sources = new ArrayList<PropertySource<?>>();
+				List<EnumerablePropertySource<?>> sources = new ArrayList<EnumerablePropertySource<?>>();
 				for (PropertySource<?> source : ((CompositePropertySource) parent)
 						.getPropertySources()) {
-					sources.add(0, source);
-				}
-				for (PropertySource<?> source : sources) {
-					extract(source, result);
+					sources(source, sources);
 				}
+				result.addAll(sources);
 			}
 			catch (Exception e) {
 				return;
 			}
 		}
 		else if (parent instanceof EnumerablePropertySource) {
-			for (String key : ((EnumerablePropertySource<?>) parent).getPropertyNames()) {
-				result.put(key, parent.getProperty(key));
-			}
+			result.add((EnumerablePropertySource<?>) parent);
 		}
 	}
 
@@ -203,4 +392,48 @@ public class ContextRefresher {
 
 	}
 
+	/**
+	 * Loads the config files (application.properties etc.) in the same way as a normal
+	 * application does on startup, and then moves them out of the temporary container
+	 * they are loaded into, so they line up with the ones in a running application.
+	 */
+	private static class ConfigFileLoader extends ConfigFileApplicationListener {
+
+		private static final String APPLICATION_CONFIGURATION_PROPERTY_SOURCE_NAME = "applicationConfigurationProperties";
+
+		public void load(ConfigurableEnvironment environment) {
+			addPropertySources(environment, null);
+			MutablePropertySources sources = environment.getPropertySources();
+			PropertySource<?> container = sources
+					.get(APPLICATION_CONFIGURATION_PROPERTY_SOURCE_NAME);
+			if (container == null) {
+				return;
+			}
+			String name = APPLICATION_CONFIGURATION_PROPERTY_SOURCE_NAME;
+			for (PropertySource<?> source : flatten(container)) {
+				sources.addAfter(name, source);
+				name = source.getName();
+			}
+			sources.remove(APPLICATION_CONFIGURATION_PROPERTY_SOURCE_NAME);
+		}
+
+		private List<PropertySource<?>> flatten(PropertySource<?> container) {
+			List<PropertySource<?>> result = new ArrayList<PropertySource<?>>();
+			for (Object nested : (Collection<?>) container.getSource()) {
+				if (nested instanceof PropertySource) {
+					PropertySource<?> source = (PropertySource<?>) nested;
+					if (source.getSource() instanceof Collection) {
+						// Multi-document files (e.g. YAML) come as a collection as well
+						result.addAll(flatten(source));
+					}
+					else {
+						result.add(source);
+					}
+				}
+			}
+			return result;
+		}
+
+	}
+
 }
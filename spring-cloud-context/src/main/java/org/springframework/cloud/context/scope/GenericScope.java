@@ -22,6 +22,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -75,6 +77,10 @@ public class GenericScope implements Scope, BeanFactoryPostProcessor, Disposable
 
 	private Map<String, Exception> errors = new ConcurrentHashMap<>();
 
+	private final ThreadLocal<BeanLifecycleWrapper> replacement = new ThreadLocal<>();
+
+	private Executor destructionExecutor;
+
 	/**
 	 * Manual override for the serialization id that will be used to identify the bean
 	 * factory. The default is a unique key based on the bean names in the bean factory.
@@ -122,6 +128,23 @@ public class GenericScope implements Scope, BeanFactoryPostProcessor, Disposable
 		this.lifecycle = lifecycle;
 	}
 
+	/**
+	 * Executor to use to destroy the old instance of a bean after it has been replaced
+	 * by a new one (see {@link #rebuild(String)}). The destruction callback waits for
+	 * calls that are in flight on the old instance, so running it in the background means
+	 * the caller that triggered the rebuild does not have to wait for them. Default null
+	 * (the old instance is destroyed by the caller).
+	 *
+	 * @param destructionExecutor the executor to set
+	 */
+	public void setDestructionExecutor(Executor destructionExecutor) {
+		this.destructionExecutor = destructionExecutor;
+	}
+
+	protected Executor getDestructionExecutor() {
+		return this.destructionExecutor;
+	}
+
 	/**
 	 * A map of bean name to errors when instantiating the bean.
 	 *
@@ -165,13 +188,80 @@ public class GenericScope implements Scope, BeanFactoryPostProcessor, Disposable
 		return false;
 	}
 
+	/**
+	 * Create a new instance of the named bean (using the factory that created the current
+	 * one) and swap it into the cache, then destroy the old instance (using the
+	 * {@link #setDestructionExecutor(Executor) destruction executor} if there is one).
+	 * Unlike {@link #destroy(String)} callers are never left without an instance: they
+	 * keep getting the old one until the new one is ready. If the new instance cannot be
+	 * created the old one is kept.
+	 *
+	 * @param name the bean name to rebuild
+	 * @return true if the bean was already cached (and initialized), false otherwise
+	 */
+	protected boolean rebuild(String name) {
+		BeanLifecycleWrapper current = this.cache.get(name);
+		if (current == null || !current.isInitialized()) {
+			return false;
+		}
+		BeanLifecycleWrapper replacement = current.copy();
+		// Destruction callbacks for the new instance have to go to the replacement
+		this.replacement.set(replacement);
+		try {
+			replacement.getBean();
+		}
+		catch (RuntimeException e) {
+			this.errors.put(name, e);
+			throw e;
+		}
+		finally {
+			this.replacement.remove();
+		}
+		destroyLater(current.swap(replacement));
+		if (this.cache.get(name) != current) {
+			// Removed while the replacement was being created
+			current.destroy();
+		}
+		this.errors.remove(name);
+		return true;
+	}
+
+	private void destroyLater(final BeanLifecycleWrapper old) {
+		if (this.destructionExecutor == null) {
+			old.destroy();
+			return;
+		}
+		try {
+			this.destructionExecutor.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						old.destroy();
+					}
+					catch (RuntimeException e) {
+						logger.warn("Could not destroy old instance of bean: " + old.name,
+								e);
+					}
+				}
+			});
+		}
+		catch (RejectedExecutionException e) {
+			old.destroy();
+		}
+	}
+
 	@Override
 	public Object get(String name, ObjectFactory<?> objectFactory) {
 		if (this.lifecycle == null) {
 			this.lifecycle = new StandardBeanLifecycleDecorator(this.proxyTargetClass);
 		}
-		BeanLifecycleWrapper value = this.cache.put(name,
-				new BeanLifecycleWrapper(name, objectFactory, this.lifecycle));
+		BeanLifecycleWrapper value = this.cache.get(name);
+		if (value == null) {
+			// Only allocate a new wrapper on a cache miss (the common case for a scoped
+			// proxy is that the bean is already there)
+			value = this.cache.put(name, new BeanLifecycleWrapper(name,
+					decorateObjectFactory(name, objectFactory), this.lifecycle));
+		}
 		try {
 			return value.getBean();
 		}
@@ -181,6 +271,20 @@ public class GenericScope implements Scope, BeanFactoryPostProcessor, Disposable
 		}
 	}
 
+	/**
+	 * Hook for subclasses to decorate the factory that will be used to create a new
+	 * instance of a bean in this scope (e.g. to record what happens while it is created).
+	 * Only called when there is no cached instance. The default is to return the input.
+	 *
+	 * @param name the bean name
+	 * @param objectFactory the factory provided by the bean factory
+	 * @return the factory to use to create the bean
+	 */
+	protected ObjectFactory<?> decorateObjectFactory(String name,
+			ObjectFactory<?> objectFactory) {
+		return objectFactory;
+	}
+
 	@Override
 	public String getConversationId() {
 		return this.name;
@@ -188,7 +292,10 @@ public class GenericScope implements Scope, BeanFactoryPostProcessor, Disposable
 
 	@Override
 	public void registerDestructionCallback(String name, Runnable callback) {
-		BeanLifecycleWrapper value = this.cache.get(name);
+		BeanLifecycleWrapper value = this.replacement.get();
+		if (value == null || !value.name.equals(name)) {
+			value = this.cache.get(name);
+		}
 		if (value == null) {
 			return;
 		}
@@ -327,9 +434,9 @@ public class GenericScope implements Scope, BeanFactoryPostProcessor, Disposable
 	 */
 	private static class BeanLifecycleWrapper {
 
-		private Object bean;
+		private volatile Object bean;
 
-		private Context<?> context;
+		private volatile Context<?> context;
 
 		private final String name;
 
@@ -363,11 +470,49 @@ public class GenericScope implements Scope, BeanFactoryPostProcessor, Disposable
 			return this.bean;
 		}
 
+		public boolean isInitialized() {
+			return this.bean != null;
+		}
+
+		/**
+		 * @return a new (empty) wrapper that creates its bean in the same way as this one
+		 */
+		public BeanLifecycleWrapper copy() {
+			return new BeanLifecycleWrapper(this.name, this.objectFactory, this.lifecycle);
+		}
+
+		/**
+		 * Take over the bean instance and destruction callback from the replacement.
+		 *
+		 * @param replacement a wrapper with a new bean instance
+		 * @return a wrapper holding the old bean instance so it can be destroyed
+		 */
+		public BeanLifecycleWrapper swap(BeanLifecycleWrapper replacement) {
+			synchronized (this.name) {
+				BeanLifecycleWrapper old = copy();
+				old.context = this.context;
+				old.bean = this.bean;
+				this.context = replacement.context;
+				this.bean = replacement.bean;
+				return old;
+			}
+		}
+
+		/**
+		 * Run the destruction callback, if there is one and it has not been run already
+		 * (e.g. by a concurrent {@link GenericScope#destroy(String)} while the bean was
+		 * being rebuilt), so each instance is destroyed exactly once.
+		 */
 		public void destroy() {
-			if (this.context == null) {
+			Context<?> context;
+			synchronized (this.name) {
+				context = this.context;
+				this.context = null;
+			}
+			if (context == null) {
 				return;
 			}
-			Runnable callback = this.context.getCallback();
+			Runnable callback = context.getCallback();
 			if (callback != null) {
 				callback.run();
 			}
@@ -14,19 +14,45 @@
 package org.springframework.cloud.context.scope.refresh;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.NoSuchBeanDefinitionException;
+import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
+import org.springframework.boot.context.properties.ConfigurationBeanFactoryMetaData;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConfigurationPropertiesBindingPostProcessorRegistrar;
 import org.springframework.cloud.context.scope.GenericScope;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.core.Ordered;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.PropertySource;
 import org.springframework.jmx.export.annotation.ManagedOperation;
 import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.util.StringUtils;
 
 /**
  * <p>
@@ -73,10 +99,22 @@ import org.springframework.jmx.export.annotation.ManagedResource;
 public class RefreshScope extends GenericScope
 		implements ApplicationContextAware, BeanDefinitionRegistryPostProcessor, Ordered {
 
+	private static final Log logger = LogFactory.getLog(RefreshScope.class);
+
+	private static final String KEY_TRACKER_PROPERTY_SOURCE_NAME = "refreshScopeKeyTracker";
+
+	private static final String ANY_PREFIX = "*";
+
 	private ApplicationContext context;
 	private BeanDefinitionRegistry registry;
 	private boolean eager = true;
 	private int order = Ordered.LOWEST_PRECEDENCE - 100;
+	private boolean targeted = false;
+	private Executor prewarmExecutor;
+	private boolean blueGreen = false;
+	private KeyTracker tracker = new KeyTracker(KEY_TRACKER_PROPERTY_SOURCE_NAME);
+	private Map<String, Set<String>> keys = new ConcurrentHashMap<String, Set<String>>();
+	private Map<String, String> prefixes = new ConcurrentHashMap<String, String>();
 
 	/**
 	 * Create a scope instance and give it the default name: "refresh".
@@ -104,6 +142,55 @@ public class RefreshScope extends GenericScope
 		this.eager = eager;
 	}
 
+	/**
+	 * Executor to use to re-create the beans in this scope in the background after
+	 * {@link #refreshAll()}. If it is set (and the scope is {@link #setEager(boolean)
+	 * eager}) the current instances of the non-lazy beans are kept and used until their
+	 * replacements are ready, so callers do not have to wait for a new instance to be
+	 * created after a refresh. Default null (all beans are destroyed and re-created on
+	 * the next method call). If it is an {@link ExecutorService} it is shut down when the
+	 * scope is destroyed (and the same goes for the
+	 * {@link #setDestructionExecutor(Executor) destruction executor}).
+	 *
+	 * @param prewarmExecutor the executor to set
+	 */
+	public void setPrewarmExecutor(Executor prewarmExecutor) {
+		this.prewarmExecutor = prewarmExecutor;
+	}
+
+	/**
+	 * Flag to say that {@link #refresh(String)} and {@link #refreshAll()} should create
+	 * a new instance of each bean that has already been created and swap it in before the
+	 * old instance is destroyed (blue/green), instead of destroying the old instance
+	 * first and leaving the next caller to create a new one. Callers are never blocked
+	 * waiting for the old instance to be destroyed. Set a
+	 * {@link #setDestructionExecutor(Executor) destruction executor} as well to destroy
+	 * the old instances in the background once the calls in flight have finished.
+	 * Default false.
+	 *
+	 * @param blueGreen the flag to set
+	 */
+	public void setBlueGreen(boolean blueGreen) {
+		this.blueGreen = blueGreen;
+	}
+
+	/**
+	 * Flag to say that the scope should record the property keys that each bean resolves
+	 * from the {@link Environment} while it is created, so that a refresh can be limited
+	 * to the beans that are affected by a change (see
+	 * {@link #getBeansAffectedBy(Set)}). Needs to be set before any beans in the scope
+	 * are created. Default false.
+	 *
+	 * @param targeted the flag to set
+	 */
+	public void setTargeted(boolean targeted) {
+		this.targeted = targeted;
+	}
+
+	public boolean isTargeted() {
+		return this.targeted;
+	}
+
 	@Override
 	public void postProcessBeanDefinitionRegistry(BeanDefinitionRegistry registry)
 			throws BeansException {
@@ -125,6 +212,29 @@ public class RefreshScope extends GenericScope
 		}
 	}
 
+	/**
+	 * Destroy all the beans in this scope (when the context is closed) and shut down the
+	 * executors that are {@link ExecutorService ExecutorServices}, so that their threads
+	 * do not outlive the context.
+	 */
+	@Override
+	public void destroy() {
+		try {
+			super.destroy();
+		}
+		finally {
+			shutdown(this.prewarmExecutor);
+			shutdown(getDestructionExecutor());
+		}
+	}
+
+	private void shutdown(Executor executor) {
+		if (executor instanceof ExecutorService) {
+			// Tasks already submitted still run
+			((ExecutorService) executor).shutdown();
+		}
+	}
+
 	@ManagedOperation(description = "Dispose of the current instance of bean name provided and force a refresh on next method execution.")
 	public boolean refresh(String name) {
 		if (!name.startsWith(SCOPED_TARGET_PREFIX)) {
@@ -132,6 +242,18 @@ public class RefreshScope extends GenericScope
 			// cache...
 			name = SCOPED_TARGET_PREFIX + name;
 		}
+		if (this.blueGreen) {
+			try {
+				if (rebuild(name)) {
+					this.context.publishEvent(new RefreshScopeRefreshedEvent(name));
+					return true;
+				}
+			}
+			catch (RuntimeException e) {
+				logger.warn("Could not re-create refresh scope bean: " + name, e);
+				return false;
+			}
+		}
 		// Ensure lifecycle is finished if bean was disposable
 		if (super.destroy(name)) {
 			this.context.publishEvent(new RefreshScopeRefreshedEvent(name));
@@ -142,12 +264,325 @@ public class RefreshScope extends GenericScope
 
 	@ManagedOperation(description = "Dispose of the current instance of all beans in this scope and force a refresh on next method execution.")
 	public void refreshAll() {
-		super.destroy();
+		boolean prewarm = this.eager && this.prewarmExecutor != null;
+		if (this.registry == null || !(prewarm || this.blueGreen)) {
+			super.destroy();
+			this.context.publishEvent(new RefreshScopeRefreshedEvent());
+			return;
+		}
+		List<String> names = new ArrayList<String>();
+		for (String name : this.context.getBeanDefinitionNames()) {
+			BeanDefinition definition = this.registry.getBeanDefinition(name);
+			if (this.getName().equals(definition.getScope())) {
+				if (definition.isLazyInit() && !this.blueGreen) {
+					super.destroy(name);
+				}
+				else {
+					names.add(name);
+				}
+			}
+		}
+		if (prewarm) {
+			prewarm(names);
+			return;
+		}
+		for (String name : names) {
+			replace(name, false);
+		}
 		this.context.publishEvent(new RefreshScopeRefreshedEvent());
 	}
 
+	private void prewarm(List<String> names) {
+		final AtomicInteger remaining = new AtomicInteger(names.size());
+		if (names.isEmpty()) {
+			this.context.publishEvent(new RefreshScopeRefreshedEvent());
+		}
+		for (final String name : names) {
+			final boolean create = !this.registry.getBeanDefinition(name).isLazyInit();
+			this.prewarmExecutor.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						replace(name, create);
+					}
+					finally {
+						if (remaining.decrementAndGet() == 0) {
+							RefreshScope.this.context
+									.publishEvent(new RefreshScopeRefreshedEvent());
+						}
+					}
+				}
+			});
+		}
+	}
+
+	/**
+	 * Swap a new instance of the bean in for the current one (if there is one).
+	 *
+	 * @param name the bean name
+	 * @param create flag to say that the bean should be created if there is no current
+	 * instance (otherwise the cache entry is just removed)
+	 */
+	private void replace(String name, boolean create) {
+		try {
+			if (!rebuild(name)) {
+				if (create) {
+					this.context.getBean(name);
+				}
+				else {
+					super.destroy(name);
+				}
+			}
+		}
+		catch (RuntimeException e) {
+			logger.warn("Could not re-create refresh scope bean: " + name, e);
+		}
+	}
+
+	/**
+	 * Compute the names of the beans in this scope that might see a different value for
+	 * any of the keys provided if they were re-created. A bean is affected if it resolved
+	 * one of the keys from the {@link Environment} when it was created, if it (or one of
+	 * its dependencies) is bound with <code>@ConfigurationProperties</code> to a prefix
+	 * of one of the keys, or if it depends on another affected bean in this scope. Only
+	 * works if the scope is {@link #setTargeted(boolean) targeted}.
+	 *
+	 * @param keys the property keys that have changed
+	 * @return the names of the beans that need to be refreshed
+	 */
+	public Set<String> getBeansAffectedBy(Set<String> keys) {
+		Set<String> result = new LinkedHashSet<String>();
+		if (keys.isEmpty()) {
+			return result;
+		}
+		Set<String> normalized = new HashSet<String>();
+		Set<String> compacted = new HashSet<String>();
+		Set<String> relaxed = new HashSet<String>();
+		for (String key : keys) {
+			normalized.add(normalize(key));
+			compacted.add(compact(key));
+			if (!key.toLowerCase().equals(key) || key.contains("_")) {
+				// Not canonical (e.g. FOO_BAR or fooBar) so the word boundaries are lost
+				relaxed.add(compact(key));
+			}
+		}
+		Keys changed = new Keys(normalized, compacted, relaxed);
+		for (String name : this.keys.keySet()) {
+			if (isAffected(name, changed, new HashSet<String>())) {
+				result.add(name);
+			}
+		}
+		return result;
+	}
+
+	private boolean isAffected(String name, Keys keys, Set<String> visited) {
+		if (!visited.add(name)) {
+			return false;
+		}
+		Set<String> recorded = this.keys.get(name);
+		if (recorded != null) {
+			for (String key : recorded) {
+				if (keys.compacted.contains(compact(key))) {
+					return true;
+				}
+			}
+		}
+		String prefix = getPrefix(name);
+		if (ANY_PREFIX.equals(prefix)) {
+			return true;
+		}
+		if (prefix != null) {
+			for (String key : keys.normalized) {
+				if (key.equals(prefix) || key.startsWith(prefix + ".")) {
+					return true;
+				}
+			}
+			String compact = compact(prefix);
+			for (String key : keys.relaxed) {
+				if (key.startsWith(compact)) {
+					return true;
+				}
+			}
+		}
+		if (!(this.context
+				.getAutowireCapableBeanFactory() instanceof ConfigurableListableBeanFactory)) {
+			return true;
+		}
+		ConfigurableListableBeanFactory beanFactory = (ConfigurableListableBeanFactory) this.context
+				.getAutowireCapableBeanFactory();
+		Set<String> dependencies = new LinkedHashSet<String>(
+				Arrays.asList(beanFactory.getDependenciesForBean(name)));
+		if (beanFactory.containsBeanDefinition(name)) {
+			String factory = beanFactory.getBeanDefinition(name).getFactoryBeanName();
+			if (factory != null) {
+				dependencies.add(factory);
+			}
+		}
+		for (String dependency : dependencies) {
+			String target = SCOPED_TARGET_PREFIX + dependency;
+			if (this.keys.containsKey(target)) {
+				// Another bean in this scope (via its proxy)
+				dependency = target;
+			}
+			if (isAffected(dependency, keys, visited)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private String getPrefix(String name) {
+		if (this.prefixes.containsKey(name)) {
+			String prefix = this.prefixes.get(name);
+			return prefix.length() > 0 ? prefix : null;
+		}
+		ConfigurationProperties annotation = null;
+		try {
+			annotation = this.context.findAnnotationOnBean(name,
+					ConfigurationProperties.class);
+			String store = ConfigurationPropertiesBindingPostProcessorRegistrar.BINDER_BEAN_NAME
+					+ ".store";
+			if (annotation == null && this.context.containsBean(store)) {
+				annotation = this.context
+						.getBean(store, ConfigurationBeanFactoryMetaData.class)
+						.findFactoryAnnotation(name, ConfigurationProperties.class);
+			}
+		}
+		catch (NoSuchBeanDefinitionException e) {
+			// Ignore (e.g. a bean registered as a singleton)
+		}
+		String prefix = "";
+		if (annotation != null) {
+			prefix = StringUtils.hasText(annotation.prefix()) ? annotation.prefix()
+					: annotation.value();
+			// No prefix means the whole environment is bound
+			prefix = prefix.length() > 0 ? normalize(prefix) : ANY_PREFIX;
+		}
+		this.prefixes.put(name, prefix);
+		return prefix.length() > 0 ? prefix : null;
+	}
+
+	/**
+	 * Reduce a property key to a form that matches its relaxed variants (e.g.
+	 * <code>FOO_BAR_SPAM</code> and <code>foo.bar-spam</code>).
+	 */
+	private static String normalize(String key) {
+		return key.replace("-", "").replace("_", ".").replace("[", ".").replace("]", "")
+				.toLowerCase();
+	}
+
+	/**
+	 * Reduce a property key to its letters and digits, so that all its relaxed variants
+	 * (including camel case) match. Different keys can collide, but that only means a
+	 * bean is refreshed when it didn't need to be.
+	 */
+	private static String compact(String key) {
+		StringBuilder builder = new StringBuilder(key.length());
+		for (char c : key.toCharArray()) {
+			if (Character.isLetterOrDigit(c)) {
+				builder.append(Character.toLowerCase(c));
+			}
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * The changed keys in the forms that are compared with the ones recorded by each
+	 * bean.
+	 */
+	private static class Keys {
+
+		private final Set<String> normalized;
+
+		private final Set<String> compacted;
+
+		private final Set<String> relaxed;
+
+		Keys(Set<String> normalized, Set<String> compacted, Set<String> relaxed) {
+			this.normalized = normalized;
+			this.compacted = compacted;
+			this.relaxed = relaxed;
+		}
+
+	}
+
+	@Override
+	protected ObjectFactory<?> decorateObjectFactory(final String name,
+			final ObjectFactory<?> objectFactory) {
+		if (!this.targeted) {
+			return objectFactory;
+		}
+		return new ObjectFactory<Object>() {
+			@Override
+			public Object getObject() throws BeansException {
+				Set<String> recorded = RefreshScope.this.tracker.start();
+				try {
+					return objectFactory.getObject();
+				}
+				finally {
+					RefreshScope.this.tracker.stop();
+					RefreshScope.this.keys.put(name, recorded);
+				}
+			}
+		};
+	}
+
 	@Override
 	public void setApplicationContext(ApplicationContext context) throws BeansException {
 		this.context = context;
+		if (this.targeted && context.getEnvironment() instanceof ConfigurableEnvironment) {
+			MutablePropertySources sources = ((ConfigurableEnvironment) context
+					.getEnvironment()).getPropertySources();
+			if (!sources.contains(KEY_TRACKER_PROPERTY_SOURCE_NAME)) {
+				sources.addFirst(this.tracker);
+			}
+		}
+	}
+
+	/**
+	 * A property source with no properties that goes first in the environment, so that
+	 * it sees every key that is looked up, and records the ones looked up while a bean
+	 * is being created.
+	 */
+	private static class KeyTracker extends PropertySource<Object> {
+
+		private final ThreadLocal<LinkedList<Set<String>>> recorders = new ThreadLocal<LinkedList<Set<String>>>();
+
+		KeyTracker(String name) {
+			super(name);
+		}
+
+		Set<String> start() {
+			LinkedList<Set<String>> recorders = this.recorders.get();
+			if (recorders == null) {
+				recorders = new LinkedList<Set<String>>();
+				this.recorders.set(recorders);
+			}
+			Set<String> recorded = Collections
+					.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+			recorders.push(recorded);
+			return recorded;
+		}
+
+		void stop() {
+			LinkedList<Set<String>> recorders = this.recorders.get();
+			recorders.pop();
+			if (recorders.isEmpty()) {
+				this.recorders.remove();
+			}
+		}
+
+		@Override
+		public Object getProperty(String name) {
+			LinkedList<Set<String>> recorders = this.recorders.get();
+			if (recorders != null) {
+				// Beans created while another one is being created are dependencies
+				for (Set<String> recorded : recorders) {
+					recorded.add(name);
+				}
+			}
+			return null;
+		}
+
 	}
 }
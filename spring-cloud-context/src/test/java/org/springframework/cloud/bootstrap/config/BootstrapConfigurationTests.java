@@ -42,6 +42,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -121,6 +122,68 @@ public class BootstrapConfigurationTests {
 		return externalPropertiesPath;
 	}
 
+	@Test
+	public void bootstrapContextReusedWhenCached() {
+		this.context = new SpringApplicationBuilder().web(false)
+				.sources(BareConfiguration.class)
+				.properties("spring.cloud.bootstrap.cache:true").run();
+		ConfigurableApplicationContext other = new SpringApplicationBuilder().web(false)
+				.sources(BareConfiguration.class)
+				.properties("spring.cloud.bootstrap.cache:true").run();
+		try {
+			assertSame(this.context.getParent(), other.getParent());
+			// This property is defined in bootstrap.properties
+			assertEquals("child", other.getEnvironment().getProperty("info.name"));
+			assertTrue(other.getEnvironment().getPropertySources().contains(
+					PropertySourceBootstrapConfiguration.BOOTSTRAP_PROPERTY_SOURCE_NAME));
+		}
+		finally {
+			other.close();
+			// Closed bootstrap contexts are not re-used
+			((ConfigurableApplicationContext) this.context.getParent()).close();
+		}
+	}
+
+	@Test
+	public void bootstrapContextReusedAfterGarbageCollection() {
+		this.context = new SpringApplicationBuilder().web(false)
+				.sources(BareConfiguration.class)
+				.properties("spring.cloud.bootstrap.cache:true").run();
+		System.gc();
+		ConfigurableApplicationContext other = new SpringApplicationBuilder().web(false)
+				.sources(BareConfiguration.class)
+				.properties("spring.cloud.bootstrap.cache:true").run();
+		try {
+			assertSame(this.context.getParent(), other.getParent());
+		}
+		finally {
+			other.close();
+			((ConfigurableApplicationContext) this.context.getParent()).close();
+		}
+	}
+
+	@Test
+	public void closedBootstrapContextReplaced() {
+		this.context = new SpringApplicationBuilder().web(false)
+				.sources(BareConfiguration.class)
+				.properties("spring.cloud.bootstrap.cache:true").run();
+		ConfigurableApplicationContext parent = (ConfigurableApplicationContext) this.context
+				.getParent();
+		this.context.close();
+		parent.close();
+		this.context = new SpringApplicationBuilder().web(false)
+				.sources(BareConfiguration.class)
+				.properties("spring.cloud.bootstrap.cache:true").run();
+		try {
+			assertNotSame(parent, this.context.getParent());
+			assertTrue(((ConfigurableApplicationContext) this.context.getParent())
+					.isActive());
+		}
+		finally {
+			((ConfigurableApplicationContext) this.context.getParent()).close();
+		}
+	}
+
 	@Test
 	public void picksUpAdditionalPropertySource() {
 		PropertySourceConfiguration.MAP.put("bootstrap.foo", "bar");
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.bootstrap.config;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.core.env.CompositePropertySource;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Venil Noronha
+ */
+public class PropertySourceBootstrapConfigurationTests {
+
+	private PropertySourceBootstrapConfiguration initializer = new PropertySourceBootstrapConfiguration();
+
+	private StandardEnvironment environment = new StandardEnvironment();
+
+	@Rule
+	public TemporaryFolder temp = new TemporaryFolder();
+
+	@Test
+	public void parallelLocatorsKeepOrder() {
+		this.initializer.setPropertySourceLocators(Arrays.<PropertySourceLocator> asList(
+				new SlowLocator("first", 200), new SlowLocator("second", 0),
+				new SlowLocator("third", 100)));
+		this.initializer.setParallel(true);
+		long start = System.currentTimeMillis();
+		this.initializer.locatePropertySources(this.environment);
+		assertTrue("Locators did not run concurrently",
+				System.currentTimeMillis() - start < 300);
+		assertEquals(Arrays.asList("first", "second", "third"), located());
+		// The first one wins
+		assertEquals("first", this.environment.getProperty("foo"));
+	}
+
+	@Test
+	public void slowLocatorIgnoredAfterTimeout() {
+		this.initializer.setPropertySourceLocators(Arrays.<PropertySourceLocator> asList(
+				new SlowLocator("first", 1000), new SlowLocator("second", 0)));
+		this.initializer.setParallel(true);
+		this.initializer.setTimeout(100);
+		this.initializer.locatePropertySources(this.environment);
+		assertEquals(Arrays.asList("second"), located());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void failingLocatorFailsFast() {
+		this.initializer.setPropertySourceLocators(
+				Arrays.<PropertySourceLocator> asList(new SlowLocator("first", 0),
+						new PropertySourceLocator() {
+							@Override
+							public PropertySource<?> locate(Environment environment) {
+								throw new IllegalStateException("Planned");
+							}
+						}));
+		this.initializer.setParallel(true);
+		this.initializer.locatePropertySources(this.environment);
+	}
+
+	@Test
+	public void snapshotUsedWhenLocatorFails() {
+		PropertySourceSnapshotStore store = new PropertySourceSnapshotStore(
+				new File(this.temp.getRoot(), "bootstrap.snapshot"));
+		this.initializer.setSnapshotStore(store);
+		this.initializer.setPropertySourceLocators(Arrays
+				.<PropertySourceLocator> asList(new SlowLocator("first", 0)));
+		this.initializer.locatePropertySources(this.environment);
+		assertTrue(store.getFile().exists());
+		this.initializer.setPropertySourceLocators(
+				Arrays.<PropertySourceLocator> asList(new PropertySourceLocator() {
+					@Override
+					public PropertySource<?> locate(Environment environment) {
+						throw new IllegalStateException("Planned");
+					}
+				}));
+		StandardEnvironment environment = new StandardEnvironment();
+		this.initializer.locatePropertySources(environment);
+		assertEquals("first", environment.getProperty("foo"));
+	}
+
+	@Test
+	public void snapshotServedFirst() throws Exception {
+		PropertySourceSnapshotStore store = new PropertySourceSnapshotStore(
+				new File(this.temp.getRoot(), "bootstrap.snapshot"));
+		store.save(new MapPropertySource("old",
+				Collections.<String, Object> singletonMap("foo", "old")));
+		this.initializer.setSnapshotStore(store);
+		this.initializer.setSnapshotFirst(true);
+		this.initializer.setPropertySourceLocators(Arrays
+				.<PropertySourceLocator> asList(new SlowLocator("first", 200)));
+		long start = System.currentTimeMillis();
+		this.initializer.locatePropertySources(this.environment);
+		assertTrue(System.currentTimeMillis() - start < 200);
+		assertEquals("old", this.environment.getProperty("foo"));
+		// Revalidated in the background for next time
+		for (int i = 0; i < 50; i++) {
+			if (!"old".equals(store.load("test").getProperty("foo"))) {
+				break;
+			}
+			Thread.sleep(100L);
+		}
+		assertEquals("first", store.load("test").getProperty("foo"));
+		// Only once per JVM, so a refresh gets fresh values
+		StandardEnvironment environment = new StandardEnvironment();
+		this.initializer.locatePropertySources(environment);
+		assertEquals("first", environment.getProperty("foo"));
+	}
+
+	private List<String> located() {
+		CompositePropertySource composite = (CompositePropertySource) this.environment
+				.getPropertySources()
+				.get(PropertySourceBootstrapConfiguration.BOOTSTRAP_PROPERTY_SOURCE_NAME);
+		List<String> names = new ArrayList<String>();
+		for (PropertySource<?> source : composite.getPropertySources()) {
+			names.add(source.getName());
+		}
+		return names;
+	}
+
+	private static class SlowLocator implements PropertySourceLocator {
+
+		private final String name;
+
+		private final long delay;
+
+		SlowLocator(String name, long delay) {
+			this.name = name;
+			this.delay = delay;
+		}
+
+		@Override
+		public PropertySource<?> locate(Environment environment) {
+			try {
+				Thread.sleep(this.delay);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return new MapPropertySource(this.name,
+					Collections.<String, Object> singletonMap("foo", this.name));
+		}
+
+	}
+
+}
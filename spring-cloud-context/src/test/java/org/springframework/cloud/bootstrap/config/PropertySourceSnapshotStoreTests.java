@@ -0,0 +1,107 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.bootstrap.config;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.core.env.CompositePropertySource;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.PropertySource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Venil Noronha
+ */
+public class PropertySourceSnapshotStoreTests {
+
+	@Rule
+	public TemporaryFolder temp = new TemporaryFolder();
+
+	private PropertySourceSnapshotStore store;
+
+	@Before
+	public void init() {
+		this.store = new PropertySourceSnapshotStore(
+				new File(this.temp.getRoot(), "snapshot/bootstrap.snapshot"));
+	}
+
+	@Test
+	public void noSnapshot() {
+		assertNull(this.store.load("bootstrap"));
+	}
+
+	@Test
+	public void savedSourcesAreLoadedInOrder() {
+		CompositePropertySource composite = new CompositePropertySource("remote");
+		CompositePropertySource nested = new CompositePropertySource("configService");
+		Map<String, Object> map = new LinkedHashMap<String, Object>();
+		map.put("foo", "bar");
+		map.put("port", 8080);
+		map.put("unicode", "\u00e9t\u00e9");
+		nested.addPropertySource(new MapPropertySource("one", map));
+		nested.addPropertySource(new MapPropertySource("two",
+				Collections.<String, Object> singletonMap("foo", "spam")));
+		composite.addPropertySource(nested);
+		assertTrue(this.store.save(composite));
+		CompositePropertySource loaded = this.store.load("bootstrap");
+		assertEquals("bootstrap", loaded.getName());
+		List<String> names = new ArrayList<String>();
+		for (PropertySource<?> source : loaded.getPropertySources()) {
+			names.add(source.getName());
+		}
+		assertEquals(Arrays.asList("one", "two"), names);
+		assertEquals("bar", loaded.getProperty("foo"));
+		assertEquals("8080", loaded.getProperty("port"));
+		assertEquals("\u00e9t\u00e9", loaded.getProperty("unicode"));
+	}
+
+	@Test
+	public void nonEnumerableSourceNotSaved() {
+		CompositePropertySource composite = new CompositePropertySource("remote");
+		composite.addPropertySource(new PropertySource<Object>("opaque") {
+			@Override
+			public Object getProperty(String name) {
+				return null;
+			}
+		});
+		assertFalse(this.store.save(composite));
+		assertFalse(this.store.getFile().exists());
+	}
+
+	@Test
+	public void corruptSnapshotIgnored() throws Exception {
+		this.store.getFile().getParentFile().mkdirs();
+		Files.write(this.store.getFile().toPath(), "foo=bar".getBytes());
+		assertNull(this.store.load("bootstrap"));
+	}
+
+}
@@ -15,16 +15,25 @@
  */
 package org.springframework.cloud.bootstrap.encrypt;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
 import org.springframework.boot.test.EnvironmentTestUtils;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.MutablePropertySources;
 import org.springframework.security.crypto.encrypt.Encryptors;
+import org.springframework.security.crypto.encrypt.TextEncryptor;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 /**
  * @author Dave Syer
@@ -84,4 +93,125 @@ public class EnvironmentDecryptApplicationInitializerTests {
 		assertEquals("", context.getEnvironment().getProperty("foo"));
 	}
 
+	@Test
+	public void lazyDecryptOnFirstUse() {
+		CountingEncryptor encryptor = new CountingEncryptor();
+		this.listener = new EnvironmentDecryptApplicationInitializer(encryptor);
+		this.listener.setLazy(true);
+		ConfigurableApplicationContext context = new AnnotationConfigApplicationContext();
+		EnvironmentTestUtils.addEnvironment(context, "foo: {cipher}bar",
+				"FOO_TEXT: {cipher}spam");
+		this.listener.initialize(context);
+		assertEquals(0, encryptor.count.get());
+		assertEquals("bar", context.getEnvironment().getProperty("foo"));
+		assertEquals("bar", context.getEnvironment().getProperty("foo"));
+		assertEquals(1, encryptor.count.get());
+		assertEquals("spam", context.getEnvironment().getProperty("foo.text"));
+		assertEquals(2, encryptor.count.get());
+	}
+
+	@Test
+	public void lazyDecryptEvictedOnChange() {
+		CountingEncryptor encryptor = new CountingEncryptor();
+		this.listener = new EnvironmentDecryptApplicationInitializer(encryptor);
+		this.listener.setLazy(true);
+		ConfigurableApplicationContext context = new AnnotationConfigApplicationContext();
+		EnvironmentTestUtils.addEnvironment(context, "foo: {cipher}bar");
+		this.listener.initialize(context);
+		context.refresh();
+		assertEquals("bar", context.getEnvironment().getProperty("foo"));
+		context.publishEvent(
+				new EnvironmentChangeEvent(Collections.<String> emptySet()));
+		assertEquals("bar", context.getEnvironment().getProperty("foo"));
+		assertEquals(1, encryptor.count.get());
+		context.publishEvent(new EnvironmentChangeEvent(Collections.singleton("foo")));
+		assertEquals("bar", context.getEnvironment().getProperty("foo"));
+		assertEquals(2, encryptor.count.get());
+		context.close();
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void lazyErrorOnUse() {
+		this.listener = new EnvironmentDecryptApplicationInitializer(
+				Encryptors.text("deadbeef", "AFFE37"));
+		this.listener.setLazy(true);
+		ConfigurableApplicationContext context = new AnnotationConfigApplicationContext();
+		EnvironmentTestUtils.addEnvironment(context, "foo: {cipher}bar");
+		this.listener.initialize(context);
+		context.getEnvironment().getProperty("foo");
+	}
+
+	@Test
+	public void parallelDecryptKeepsOrder() {
+		this.listener.setParallel(true);
+		MutablePropertySources sources = new MutablePropertySources();
+		Map<String, Object> map = new LinkedHashMap<String, Object>();
+		for (int i = 0; i < 100; i++) {
+			map.put("key" + i, "{cipher}value" + i);
+		}
+		sources.addFirst(new MapPropertySource("test", map));
+		Map<String, Object> decrypted = this.listener.decrypt(sources);
+		assertEquals(new ArrayList<String>(map.keySet()),
+				new ArrayList<String>(decrypted.keySet()));
+		for (int i = 0; i < 100; i++) {
+			assertEquals("value" + i, decrypted.get("key" + i));
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void parallelErrorOnDecrypt() {
+		this.listener = new EnvironmentDecryptApplicationInitializer(
+				Encryptors.text("deadbeef", "AFFE37"));
+		this.listener.setParallel(true);
+		ConfigurableApplicationContext context = new AnnotationConfigApplicationContext();
+		EnvironmentTestUtils.addEnvironment(context, "foo: {cipher}bar",
+				"bar: {cipher}foo");
+		this.listener.initialize(context);
+	}
+
+	@Test
+	public void sharedCacheAvoidsDecryptingAgain() {
+		CountingEncryptor encryptor = new CountingEncryptor();
+		// The first user (e.g. the main bootstrap context) holds on to it
+		DecryptionCache cache = DecryptionCache.shared("sharedCacheTest", 10);
+		for (int i = 0; i < 2; i++) {
+			// Each refresh creates (and then releases) a new bootstrap context
+			System.gc();
+			DecryptionCache refreshed = DecryptionCache.shared("sharedCacheTest", 10);
+			assertSame(cache, refreshed);
+			this.listener = new EnvironmentDecryptApplicationInitializer(encryptor);
+			this.listener.setCache(refreshed);
+			ConfigurableApplicationContext context = new AnnotationConfigApplicationContext();
+			EnvironmentTestUtils.addEnvironment(context, "foo: {cipher}bar");
+			this.listener.initialize(context);
+			assertEquals("bar", context.getEnvironment().getProperty("foo"));
+			refreshed.release();
+		}
+		assertEquals(1, encryptor.count.get());
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+		cache.release();
+		// No longer in use, so no longer shared
+		DecryptionCache other = DecryptionCache.shared("sharedCacheTest", 10);
+		assertNotSame(cache, other);
+		other.release();
+	}
+
+	private static class CountingEncryptor implements TextEncryptor {
+
+		private final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public String encrypt(String text) {
+			return text;
+		}
+
+		@Override
+		public String decrypt(String encryptedText) {
+			this.count.incrementAndGet();
+			return encryptedText;
+		}
+
+	}
+
 }
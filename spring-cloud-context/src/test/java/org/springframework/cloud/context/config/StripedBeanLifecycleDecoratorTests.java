@@ -0,0 +1,181 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.context.config;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.cloud.context.config.BeanLifecycleDecorator.Context;
+import org.springframework.cloud.context.config.StripedBeanLifecycleDecorator.DisposalGuard;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Venil Noronha
+ */
+public class StripedBeanLifecycleDecoratorTests {
+
+	private StripedBeanLifecycleDecorator decorator = new StripedBeanLifecycleDecorator(
+			false, 4);
+
+	private ExecutorService executor = Executors.newFixedThreadPool(2);
+
+	@After
+	public void close() {
+		this.executor.shutdownNow();
+	}
+
+	@Test
+	public void noCallbackNoProxy() {
+		Service bean = new ExampleService();
+		assertNull(this.decorator.decorateDestructionCallback(null));
+		assertSame(bean, this.decorator.decorateBean(bean, null));
+	}
+
+	@Test
+	public void destroyWaitsForCallInFlight() throws Exception {
+		final ExampleService target = new ExampleService();
+		final AtomicBoolean destroyed = new AtomicBoolean();
+		final Context<DisposalGuard> context = this.decorator
+				.decorateDestructionCallback(new Runnable() {
+					@Override
+					public void run() {
+						destroyed.set(target.running);
+					}
+				});
+		final Service bean = (Service) this.decorator.decorateBean(target, context);
+		target.latch = new CountDownLatch(1);
+		Future<String> call = this.executor.submit(new Callable<String>() {
+			@Override
+			public String call() throws Exception {
+				return bean.getMessage();
+			}
+		});
+		assertTrue(target.started.await(1000, TimeUnit.MILLISECONDS));
+		assertEquals(1, context.getAuxiliary().inFlight());
+		Future<?> destroy = this.executor.submit(context.getCallback());
+		Thread.sleep(100L);
+		assertFalse(destroy.isDone());
+		target.latch.countDown();
+		assertEquals("Hello", call.get(1000, TimeUnit.MILLISECONDS));
+		destroy.get(1000, TimeUnit.MILLISECONDS);
+		// the callback never observed a method running on the bean
+		assertFalse(destroyed.get());
+		assertEquals(0, context.getAuxiliary().inFlight());
+		// and the bean is still usable after its destruction callback
+		assertEquals("Hello", bean.getMessage());
+	}
+
+	@Test
+	public void nestedCallPassesWhileDraining() throws Exception {
+		final ExampleService target = new ExampleService();
+		final Context<DisposalGuard> context = this.decorator
+				.decorateDestructionCallback(new Runnable() {
+					@Override
+					public void run() {
+					}
+				});
+		final Service bean = (Service) this.decorator.decorateBean(target, context);
+		target.nested = bean;
+		target.latch = new CountDownLatch(1);
+		Future<String> call = this.executor.submit(new Callable<String>() {
+			@Override
+			public String call() throws Exception {
+				return bean.getMessage();
+			}
+		});
+		assertTrue(target.started.await(1000, TimeUnit.MILLISECONDS));
+		Future<?> destroy = this.executor.submit(context.getCallback());
+		Thread.sleep(100L);
+		assertFalse(destroy.isDone());
+		// the outer call now calls the bean again while the destruction is waiting
+		target.latch.countDown();
+		assertEquals("Hello", call.get(1000, TimeUnit.MILLISECONDS));
+		destroy.get(1000, TimeUnit.MILLISECONDS);
+		assertEquals(0, context.getAuxiliary().inFlight());
+	}
+
+	@Test
+	public void callbackCanCallBean() {
+		final ExampleService target = new ExampleService();
+		final Service[] holder = new Service[1];
+		final AtomicBoolean called = new AtomicBoolean();
+		Context<DisposalGuard> context = this.decorator
+				.decorateDestructionCallback(new Runnable() {
+					@Override
+					public void run() {
+						called.set("Hello".equals(holder[0].getMessage()));
+					}
+				});
+		holder[0] = (Service) this.decorator.decorateBean(target, context);
+		context.getCallback().run();
+		assertTrue(called.get());
+	}
+
+	public static interface Service {
+
+		String getMessage();
+
+	}
+
+	static class ExampleService implements Service {
+
+		private volatile boolean running;
+
+		private volatile CountDownLatch latch;
+
+		private final CountDownLatch started = new CountDownLatch(1);
+
+		private volatile Service nested;
+
+		@Override
+		public String getMessage() {
+			this.running = true;
+			try {
+				this.started.countDown();
+				if (this.latch != null) {
+					this.latch.await(1000, TimeUnit.MILLISECONDS);
+				}
+				Service nested = this.nested;
+				if (nested != null) {
+					this.nested = null;
+					return nested.getMessage();
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			finally {
+				this.running = false;
+			}
+			return "Hello";
+		}
+
+	}
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.context.encrypt;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+import org.springframework.security.crypto.encrypt.Encryptors;
+import org.springframework.security.crypto.encrypt.TextEncryptor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * @author Venil Noronha
+ */
+public class EncryptorFactoryTests {
+
+	private EncryptorFactory factory = new EncryptorFactory();
+
+	@Test
+	public void compatibleWithSpringSecurity() {
+		TextEncryptor encryptor = this.factory.create("foo");
+		TextEncryptor expected = Encryptors.text("foo", "deadbeef");
+		assertEquals("bar", encryptor.decrypt(expected.encrypt("bar")));
+		assertEquals("bar", expected.decrypt(encryptor.encrypt("bar")));
+	}
+
+	@Test
+	public void cachedByKey() {
+		assertSame(this.factory.create("foo"), new EncryptorFactory().create("foo"));
+		assertNotSame(this.factory.create("foo"), this.factory.create("bar"));
+	}
+
+	@Test
+	public void gcmRoundTrip() {
+		TextEncryptor encryptor = this.factory.create("foo", AesMode.GCM);
+		assertNotSame(this.factory.create("foo"), encryptor);
+		assertEquals("bar", encryptor.decrypt(encryptor.encrypt("bar")));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void gcmCannotDecryptCbc() {
+		this.factory.create("foo", AesMode.GCM)
+				.decrypt(this.factory.create("foo").encrypt("bar"));
+	}
+
+	@Test(expected = KeyFormatException.class)
+	public void publicKeyRejected() {
+		this.factory.create("ssh-rsa AAAAB3NzaC1yc2EAAAADAQABAAABAQ");
+	}
+
+	@Test
+	public void concurrentDecrypt() throws Exception {
+		final TextEncryptor encryptor = this.factory.create("foo");
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<String>> results = new ArrayList<Future<String>>();
+			for (int i = 0; i < 100; i++) {
+				final String value = "value" + i;
+				final String cipher = encryptor.encrypt(value);
+				results.add(executor.submit(new Callable<String>() {
+					@Override
+					public String call() throws Exception {
+						return encryptor.decrypt(cipher);
+					}
+				}));
+			}
+			for (int i = 0; i < 100; i++) {
+				assertEquals("value" + i, results.get(i).get());
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.context.properties;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.support.GenericApplicationContext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Venil Noronha
+ */
+public class ConfigurationPropertiesBeansTests {
+
+	private ConfigurationPropertiesBeans beans = new ConfigurationPropertiesBeans();
+
+	@Before
+	public void init() {
+		this.beans.setApplicationContext(new GenericApplicationContext());
+		this.beans.postProcessBeforeInitialization(new Server(), "server");
+		this.beans.postProcessBeforeInitialization(new ServerSsl(), "ssl");
+		this.beans.postProcessBeforeInitialization(new DataSource(), "dataSource");
+		this.beans.postProcessBeforeInitialization(new Object(), "other");
+	}
+
+	@Test
+	public void exactPrefix() {
+		assertEquals(new HashSet<String>(Arrays.asList("server")),
+				this.beans.getBeanNames(Collections.singleton("server.port")));
+	}
+
+	@Test
+	public void nestedPrefix() {
+		assertEquals(new HashSet<String>(Arrays.asList("server", "ssl")),
+				this.beans.getBeanNames(Collections.singleton("server.ssl.key-store")));
+	}
+
+	@Test
+	public void relaxedKey() {
+		assertEquals(new HashSet<String>(Arrays.asList("dataSource")),
+				this.beans.getBeanNames(Collections.singleton("spring.dataSource.url")));
+		assertEquals(new HashSet<String>(Arrays.asList("dataSource")),
+				this.beans.getBeanNames(
+						Collections.singleton("spring.datasource.max-active")));
+	}
+
+	@Test
+	public void parentKey() {
+		assertEquals(new HashSet<String>(Arrays.asList("server", "ssl")),
+				this.beans.getBeanNames(Collections.singleton("server")));
+	}
+
+	@Test
+	public void unrelatedKey() {
+		assertEquals(Collections.emptySet(),
+				this.beans.getBeanNames(Collections.singleton("foo.bar")));
+	}
+
+	@Test
+	public void environmentVariableMatchesAll() {
+		assertEquals(this.beans.getBeanNames(),
+				this.beans.getBeanNames(Collections.singleton("SERVER_PORT")));
+	}
+
+	@Test
+	public void postProcessingCounted() {
+		assertEquals(4, this.beans.getPostProcessingCount());
+		assertTrue(this.beans.getPostProcessingTime() > 0);
+	}
+
+	@Test
+	public void childContextSeesParentBeans() {
+		GenericApplicationContext parent = new GenericApplicationContext();
+		parent.getBeanFactory().registerSingleton("configurationPropertiesBeans",
+				this.beans);
+		parent.refresh();
+		GenericApplicationContext context = new GenericApplicationContext(parent);
+		ConfigurationPropertiesBeans child = new ConfigurationPropertiesBeans();
+		child.setApplicationContext(context);
+		child.postProcessBeforeInitialization(new Server(), "child");
+		assertEquals(new HashSet<String>(Arrays.asList("server", "child")),
+				child.getBeanNames(Collections.singleton("server.port")));
+		parent.close();
+	}
+
+	@ConfigurationProperties("server")
+	static class Server {
+	}
+
+	@ConfigurationProperties(prefix = "server.ssl")
+	static class ServerSsl {
+	}
+
+	@ConfigurationProperties("spring.datasource")
+	static class DataSource {
+	}
+
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.context.properties;
+
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.annotation.PostConstruct;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.boot.autoconfigure.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.EnvironmentTestUtils;
+import org.springframework.cloud.autoconfigure.ConfigurationPropertiesRebinderAutoConfiguration;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Venil Noronha
+ */
+public class ConfigurationPropertiesRebinderParallelTests {
+
+	private AnnotationConfigApplicationContext context;
+
+	private ConfigurationPropertiesRebinder rebinder;
+
+	@Before
+	public void init() {
+		this.context = new AnnotationConfigApplicationContext();
+		EnvironmentTestUtils.addEnvironment(this.context,
+				"spring.cloud.refresh.parallel-rebind=true", "first.message=Hello",
+				"second.message=World");
+		this.context.register(TestConfiguration.class,
+				PropertyPlaceholderAutoConfiguration.class,
+				ConfigurationPropertiesRebinderAutoConfiguration.class);
+		this.context.refresh();
+		this.rebinder = this.context.getBean(ConfigurationPropertiesRebinder.class);
+	}
+
+	@After
+	public void close() {
+		if (this.context != null) {
+			this.context.close();
+		}
+	}
+
+	@Test
+	public void dependentRebindAfterDependency() {
+		DependentProperties second = this.context.getBean(DependentProperties.class);
+		assertEquals("Hello World", second.getObserved());
+		for (int i = 0; i < 10; i++) {
+			EnvironmentTestUtils.addEnvironment(this.context.getEnvironment(),
+					"first.message=Hello" + i);
+			this.rebinder.rebind();
+			assertEquals("Hello" + i + " World", second.getObserved());
+		}
+	}
+
+	@Test
+	public void onlyAffectedBeansRebound() {
+		DependentProperties second = this.context.getBean(DependentProperties.class);
+		EnvironmentTestUtils.addEnvironment(this.context.getEnvironment(),
+				"first.message=Foo", "second.message=Bar");
+		this.context.publishEvent(
+				new EnvironmentChangeEvent(Collections.singleton("second.message")));
+		assertEquals("Hello", this.context.getBean(TestProperties.class).getMessage());
+		assertEquals("Hello Bar", second.getObserved());
+		// Dependent beans are rebound too
+		this.context.publishEvent(
+				new EnvironmentChangeEvent(Collections.singleton("first.message")));
+		assertEquals("Foo", this.context.getBean(TestProperties.class).getMessage());
+		assertEquals("Foo Bar", second.getObserved());
+	}
+
+	@Test
+	public void placeholderValuesRebound() {
+		DependentProperties second = this.context.getBean(DependentProperties.class);
+		EnvironmentTestUtils.addEnvironment(this.context.getEnvironment(),
+				"greeting=Hi", "second.message=${greeting}");
+		this.rebinder.rebind();
+		assertEquals("Hello Hi", second.getObserved());
+		EnvironmentTestUtils.addEnvironment(this.context.getEnvironment(),
+				"greeting=Howdy");
+		// Only the placeholder changed, not the value of the bean's property
+		this.context.publishEvent(
+				new EnvironmentChangeEvent(Collections.singleton("greeting")));
+		assertEquals("Hello Howdy", second.getObserved());
+	}
+
+	@Test
+	public void errorsKeptForBeansNotRebound() {
+		EnvironmentTestUtils.addEnvironment(this.context.getEnvironment(),
+				"second.message=fail");
+		try {
+			this.rebinder.rebind();
+			fail("Expected BeanCreationException");
+		}
+		catch (BeanCreationException e) {
+			// expected
+		}
+		this.context.publishEvent(
+				new EnvironmentChangeEvent(Collections.singleton("other.message")));
+		assertTrue(this.rebinder.getErrors().containsKey("second"));
+	}
+
+	@Test
+	public void executorShutDownWithContext() {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		this.rebinder.setExecutor(executor);
+		this.context.close();
+		assertTrue(executor.isShutdown());
+	}
+
+	@Test
+	public void errorsCollected() {
+		EnvironmentTestUtils.addEnvironment(this.context.getEnvironment(),
+				"second.message=fail");
+		try {
+			this.rebinder.rebind();
+			fail("Expected BeanCreationException");
+		}
+		catch (BeanCreationException e) {
+			assertTrue(this.rebinder.getErrors().containsKey("second"));
+			assertEquals(1, this.rebinder.getErrors().size());
+		}
+	}
+
+	@Configuration
+	@EnableConfigurationProperties
+	protected static class TestConfiguration {
+
+		@Bean
+		@ConfigurationProperties("first")
+		public TestProperties first() {
+			return new TestProperties();
+		}
+
+		@Bean
+		@ConfigurationProperties("second")
+		public DependentProperties second(TestProperties first) {
+			return new DependentProperties(first);
+		}
+
+	}
+
+	protected static class TestProperties {
+
+		private String message;
+
+		public String getMessage() {
+			return this.message;
+		}
+
+		public void setMessage(String message) {
+			this.message = message;
+		}
+
+	}
+
+	protected static class DependentProperties {
+
+		private final TestProperties first;
+
+		private String message;
+
+		private String observed;
+
+		public DependentProperties(TestProperties first) {
+			this.first = first;
+		}
+
+		public String getMessage() {
+			return this.message;
+		}
+
+		public void setMessage(String message) {
+			this.message = message;
+		}
+
+		public String getObserved() {
+			return this.observed;
+		}
+
+		@PostConstruct
+		public void init() {
+			if ("fail".equals(getMessage())) {
+				throw new IllegalStateException("Planned");
+			}
+			this.observed = this.first.getMessage() + " " + getMessage();
+		}
+
+	}
+
+}
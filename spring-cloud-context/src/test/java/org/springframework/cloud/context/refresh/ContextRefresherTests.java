@@ -0,0 +1,153 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.context.refresh;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cloud.context.scope.refresh.RefreshScope;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.CompositePropertySource;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.MutablePropertySources;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Venil Noronha
+ */
+public class ContextRefresherTests {
+
+	private AnnotationConfigApplicationContext context;
+
+	private RefreshScope scope = new RefreshScope();
+
+	private MutablePropertySources sources;
+
+	@Before
+	public void init() {
+		this.context = new AnnotationConfigApplicationContext();
+		this.sources = this.context.getEnvironment().getPropertySources();
+		this.sources.addLast(source("one", "foo", "1", "bar", "1"));
+		CompositePropertySource composite = new CompositePropertySource("composite");
+		composite.addPropertySource(source("two", "foo", "2", "spam", "2"));
+		composite.addPropertySource(source("three", "bar", "3", "bucket", "3"));
+		this.sources.addLast(composite);
+		this.context.refresh();
+		this.scope.setApplicationContext(this.context);
+	}
+
+	@After
+	public void close() {
+		if (this.context != null) {
+			this.context.close();
+		}
+	}
+
+	@Test
+	public void nothingChanged() {
+		Set<String> keys = new Reloader(this.context, this.scope) {
+			@Override
+			protected void reload(MutablePropertySources sources) {
+			}
+		}.refresh();
+		assertEquals(0, keys.size());
+	}
+
+	@Test
+	public void replacedSourceWithSameValues() {
+		Set<String> keys = new Reloader(this.context, this.scope) {
+			@Override
+			protected void reload(MutablePropertySources sources) {
+				sources.replace("one", source("one", "foo", "1", "bar", "1"));
+			}
+		}.refresh();
+		assertEquals(0, keys.size());
+	}
+
+	@Test
+	public void changedValueHiddenByHigherPrecedence() {
+		Set<String> keys = new Reloader(this.context, this.scope) {
+			@Override
+			protected void reload(MutablePropertySources sources) {
+				CompositePropertySource composite = new CompositePropertySource(
+						"composite");
+				composite.addPropertySource(source("two", "foo", "4", "spam", "2"));
+				composite.addPropertySource(source("three", "bar", "3", "bucket", "4"));
+				sources.replace("composite", composite);
+			}
+		}.refresh();
+		assertEquals(new HashSet<String>(Arrays.asList("bucket")), keys);
+	}
+
+	@Test
+	public void addedAndRemovedKeys() {
+		Set<String> keys = new Reloader(this.context, this.scope) {
+			@Override
+			protected void reload(MutablePropertySources sources) {
+				sources.replace("one", source("one", "foo", "1", "added", "1"));
+			}
+		}.refresh();
+		// bar is still there, but the value now comes from a lower precedence source
+		assertEquals(new HashSet<String>(Arrays.asList("added", "bar")), keys);
+	}
+
+	@Test
+	public void reorderedSources() {
+		Set<String> keys = new Reloader(this.context, this.scope) {
+			@Override
+			protected void reload(MutablePropertySources sources) {
+				sources.addFirst(sources.remove("composite"));
+			}
+		}.refresh();
+		assertEquals(new HashSet<String>(Arrays.asList("foo", "bar")), keys);
+	}
+
+	private static MapPropertySource source(String name, String... pairs) {
+		Map<String, Object> map = new LinkedHashMap<String, Object>();
+		for (int i = 0; i < pairs.length; i += 2) {
+			map.put(pairs[i], pairs[i + 1]);
+		}
+		return new MapPropertySource(name, map);
+	}
+
+	private static abstract class Reloader extends ContextRefresher {
+
+		private final ConfigurableApplicationContext context;
+
+		Reloader(ConfigurableApplicationContext context, RefreshScope scope) {
+			super(context, scope);
+			this.context = context;
+		}
+
+		@Override
+		protected void addConfigFilesToEnvironment() {
+			reload(this.context.getEnvironment().getPropertySources());
+		}
+
+		protected abstract void reload(MutablePropertySources sources);
+
+	}
+
+}
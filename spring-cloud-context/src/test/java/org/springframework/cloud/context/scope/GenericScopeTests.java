@@ -0,0 +1,139 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.context.scope;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.springframework.beans.factory.ObjectFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Venil Noronha
+ */
+public class GenericScopeTests {
+
+	private GenericScope scope = new GenericScope();
+
+	private final AtomicInteger count = new AtomicInteger();
+
+	private volatile boolean broken;
+
+	private volatile Runnable whileCreating;
+
+	private final List<Object> destroyed = new ArrayList<Object>();
+
+	private ObjectFactory<Object> factory = new ObjectFactory<Object>() {
+		@Override
+		public Object getObject() {
+			if (GenericScopeTests.this.broken) {
+				throw new IllegalStateException("Planned");
+			}
+			GenericScopeTests.this.count.incrementAndGet();
+			if (GenericScopeTests.this.whileCreating != null) {
+				GenericScopeTests.this.whileCreating.run();
+			}
+			final Object bean = new Object();
+			// Like a bean factory creating a disposable bean
+			GenericScopeTests.this.scope.registerDestructionCallback("bean",
+					new Runnable() {
+						@Override
+						public void run() {
+							GenericScopeTests.this.destroyed.add(bean);
+						}
+					});
+			return bean;
+		}
+	};
+
+	@Test
+	public void cachedBeanIsReused() {
+		Object bean = this.scope.get("bean", this.factory);
+		assertSame(bean, this.scope.get("bean", this.factory));
+		assertSame(bean, this.scope.get("bean", this.factory));
+		assertEquals(1, this.count.get());
+	}
+
+	@Test
+	public void destroyedBeanIsRecreated() {
+		Object bean = this.scope.get("bean", this.factory);
+		this.scope.destroy();
+		assertNotSame(bean, this.scope.get("bean", this.factory));
+		assertEquals(2, this.count.get());
+	}
+
+	@Test
+	public void rebuiltBeanIsSwappedBeforeOldOneIsDestroyed() {
+		assertFalse(this.scope.rebuild("bean"));
+		Object bean = this.scope.get("bean", this.factory);
+		assertTrue(this.scope.rebuild("bean"));
+		Object rebuilt = this.scope.get("bean", this.factory);
+		assertNotSame(bean, rebuilt);
+		assertEquals(2, this.count.get());
+		assertEquals(Arrays.asList(bean), this.destroyed);
+		// The destruction callback of the new instance is registered too
+		this.scope.destroy();
+		assertEquals(Arrays.asList(bean, rebuilt), this.destroyed);
+	}
+
+	@Test
+	public void beanDestroyedWhileRebuildingIsDestroyedOnce() {
+		Object bean = this.scope.get("bean", this.factory);
+		// Like a concurrent destroy after the rebuild has looked up the cached bean
+		this.whileCreating = new Runnable() {
+			@Override
+			public void run() {
+				GenericScopeTests.this.whileCreating = null;
+				GenericScopeTests.this.scope.destroy("bean");
+			}
+		};
+		assertTrue(this.scope.rebuild("bean"));
+		assertEquals(2, this.count.get());
+		assertEquals(2, this.destroyed.size());
+		assertSame(bean, this.destroyed.get(0));
+		// The replacement was removed too, so it is not kept
+		assertNotSame(bean, this.destroyed.get(1));
+		this.scope.destroy();
+		assertEquals(2, this.destroyed.size());
+	}
+
+	@Test
+	public void failedRebuildKeepsOldBean() {
+		Object bean = this.scope.get("bean", this.factory);
+		this.broken = true;
+		try {
+			this.scope.rebuild("bean");
+			fail("Expected IllegalStateException");
+		}
+		catch (IllegalStateException e) {
+			assertEquals("Planned", e.getMessage());
+		}
+		assertSame(bean, this.scope.get("bean", this.factory));
+		assertTrue(this.destroyed.isEmpty());
+		assertTrue(this.scope.getErrors().containsKey("bean"));
+	}
+
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.context.scope.refresh;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.test.EnvironmentTestUtils;
+import org.springframework.cloud.autoconfigure.RefreshAutoConfiguration;
+import org.springframework.cloud.context.environment.EnvironmentManager;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the refresh modes that keep the old instance of a bean until the new one is
+ * ready (pre-warming and blue/green).
+ *
+ * @author Venil Noronha
+ */
+public class RefreshScopePrewarmTests {
+
+	private AnnotationConfigApplicationContext context;
+
+	private QueueExecutor executor = new QueueExecutor();
+
+	private RefreshScope scope;
+
+	private TestConfiguration config;
+
+	private void init(String... pairs) {
+		this.context = new AnnotationConfigApplicationContext();
+		EnvironmentTestUtils.addEnvironment(this.context, pairs);
+		this.context.register(TestConfiguration.class,
+				PropertyPlaceholderAutoConfiguration.class,
+				RefreshAutoConfiguration.class);
+		this.context.refresh();
+		this.scope = this.context.getBean(RefreshScope.class);
+		this.config = this.context.getBean(TestConfiguration.class);
+	}
+
+	@After
+	public void close() {
+		if (this.context != null) {
+			this.context.close();
+		}
+	}
+
+	@Test
+	public void oldInstanceUsedUntilNewOneIsReady() {
+		init();
+		this.scope.setPrewarmExecutor(this.executor);
+		Service service = this.context.getBean(Service.class);
+		assertEquals("Hello", service.getMessage());
+		assertEquals(1, this.config.created.get());
+		this.context.getBean(EnvironmentManager.class).setProperty("message", "Foo");
+		this.scope.refreshAll();
+		assertEquals("Hello", service.getMessage());
+		assertEquals(0, this.config.refreshed.get());
+		this.executor.runAll();
+		assertEquals("Foo", service.getMessage());
+		assertEquals(2, this.config.created.get());
+		assertEquals(1, this.config.destroyed.get());
+		assertEquals(1, this.config.refreshed.get());
+	}
+
+	@Test
+	public void executorsShutDownWithContext() {
+		init();
+		ExecutorService prewarm = Executors.newSingleThreadExecutor();
+		ExecutorService destruction = Executors.newSingleThreadExecutor();
+		this.scope.setPrewarmExecutor(prewarm);
+		this.scope.setDestructionExecutor(destruction);
+		this.context.close();
+		assertTrue(prewarm.isShutdown());
+		assertTrue(destruction.isShutdown());
+	}
+
+	@Test
+	public void blueGreenRefreshAllSwapsBeforeDestroying() {
+		init("spring.cloud.refresh.blue-green=true");
+		this.scope.setDestructionExecutor(this.executor);
+		Service service = this.context.getBean(Service.class);
+		assertEquals("Hello", service.getMessage());
+		this.context.getBean(EnvironmentManager.class).setProperty("message", "Foo");
+		this.scope.refreshAll();
+		// New instance is already there, old one not destroyed yet
+		assertEquals(2, this.config.created.get());
+		assertEquals("Foo", service.getMessage());
+		assertEquals(0, this.config.destroyed.get());
+		this.executor.runAll();
+		assertEquals(1, this.config.destroyed.get());
+		assertEquals("Foo", service.getMessage());
+	}
+
+	@Test
+	public void blueGreenRefreshSwapsBeforeDestroying() {
+		init("spring.cloud.refresh.blue-green=true");
+		this.scope.setDestructionExecutor(this.executor);
+		Service service = this.context.getBean(Service.class);
+		assertEquals("Hello", service.getMessage());
+		this.context.getBean(EnvironmentManager.class).setProperty("message", "Foo");
+		assertTrue(this.scope.refresh("service"));
+		assertEquals("Foo", service.getMessage());
+		assertEquals(0, this.config.destroyed.get());
+		this.executor.runAll();
+		assertEquals(1, this.config.destroyed.get());
+	}
+
+	public static interface Service {
+
+		String getMessage();
+
+	}
+
+	public static class ExampleService implements Service {
+
+		private final String message;
+
+		private final AtomicInteger destroyed;
+
+		public ExampleService(String message, AtomicInteger destroyed) {
+			this.message = message;
+			this.destroyed = destroyed;
+		}
+
+		@Override
+		public String getMessage() {
+			return this.message;
+		}
+
+		public void close() {
+			this.destroyed.incrementAndGet();
+		}
+
+	}
+
+	@Configuration
+	protected static class TestConfiguration
+			implements ApplicationListener<RefreshScopeRefreshedEvent> {
+
+		private final AtomicInteger created = new AtomicInteger();
+
+		private final AtomicInteger destroyed = new AtomicInteger();
+
+		private final AtomicInteger refreshed = new AtomicInteger();
+
+		@Bean(destroyMethod = "close")
+		@org.springframework.cloud.context.config.annotation.RefreshScope
+		public ExampleService service(@Value("${message:Hello}") String message) {
+			this.created.incrementAndGet();
+			return new ExampleService(message, this.destroyed);
+		}
+
+		@Override
+		public void onApplicationEvent(RefreshScopeRefreshedEvent event) {
+			this.refreshed.incrementAndGet();
+		}
+
+	}
+
+	private static class QueueExecutor implements Executor {
+
+		private final List<Runnable> tasks = new ArrayList<Runnable>();
+
+		@Override
+		public void execute(Runnable command) {
+			this.tasks.add(command);
+		}
+
+		public void runAll() {
+			for (Runnable task : this.tasks) {
+				task.run();
+			}
+			this.tasks.clear();
+		}
+
+	}
+
+}
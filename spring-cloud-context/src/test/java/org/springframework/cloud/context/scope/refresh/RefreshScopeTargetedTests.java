@@ -0,0 +1,236 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.context.scope.refresh;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.EnvironmentTestUtils;
+import org.springframework.cloud.autoconfigure.RefreshAutoConfiguration;
+import org.springframework.cloud.context.environment.EnvironmentManager;
+import org.springframework.cloud.context.refresh.ContextRefresher;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Venil Noronha
+ */
+public class RefreshScopeTargetedTests {
+
+	private AnnotationConfigApplicationContext context;
+
+	private RefreshScope scope;
+
+	@Before
+	public void init() {
+		this.context = new AnnotationConfigApplicationContext();
+		EnvironmentTestUtils.addEnvironment(this.context,
+				"spring.cloud.refresh.targeted=true");
+		this.context.register(TestConfiguration.class,
+				PropertyPlaceholderAutoConfiguration.class,
+				RefreshAutoConfiguration.class);
+		this.context.refresh();
+		this.scope = this.context.getBean(RefreshScope.class);
+		assertTrue(this.scope.isTargeted());
+	}
+
+	@After
+	public void close() {
+		if (this.context != null) {
+			this.context.close();
+		}
+	}
+
+	@Test
+	public void valueInjectedKeys() {
+		assertEquals("foo", this.context.getBean("foo", Message.class).getMessage());
+		assertEquals("bar", this.context.getBean("bar", Message.class).getMessage());
+		assertEquals(set("scopedTarget.foo"), affected("foo.message"));
+		assertEquals(set("scopedTarget.bar"), affected("bar.message"));
+		assertEquals(set(), affected("spam.message"));
+	}
+
+	@Test
+	public void valueInjectedRelaxedKeys() {
+		this.context.getBean("foo", Message.class).getMessage();
+		assertEquals(set("scopedTarget.foo"), affected("FOO_MESSAGE"));
+		assertEquals(set("scopedTarget.foo"), affected("foo.Message"));
+		assertEquals(set("scopedTarget.foo"), affected("foo-message"));
+	}
+
+	@Test
+	public void configurationPropertiesPrefix() {
+		this.context.getBean(ScopedProperties.class).getMessage();
+		assertEquals(set("scopedTarget.scopedProperties"), affected("scoped.message"));
+		assertEquals(set("scopedTarget.scopedProperties"), affected("SCOPED_MESSAGE"));
+		assertEquals(set(), affected("scopedness"));
+	}
+
+	@Test
+	public void dependencyWithConfigurationProperties() {
+		assertEquals("Hello", this.context.getBean("holder", Message.class).getMessage());
+		assertEquals(set("scopedTarget.holder"), affected("holder.message"));
+	}
+
+	@Test
+	public void onlyAffectedBeansAreRefreshed() {
+		Message foo = this.context.getBean("foo", Message.class);
+		Message bar = this.context.getBean("bar", Message.class);
+		foo.getMessage();
+		bar.getMessage();
+		EnvironmentManager environment = this.context.getBean(EnvironmentManager.class);
+		environment.setProperty("foo.message", "Foo");
+		environment.setProperty("bar.message", "Bar");
+		for (String name : affected("foo.message")) {
+			this.scope.refresh(name);
+		}
+		assertEquals("Foo", foo.getMessage());
+		assertEquals("bar", bar.getMessage());
+	}
+
+	@Test
+	public void refreshEventPublishedWhenNoBeanAffected() {
+		final List<RefreshScopeRefreshedEvent> events = new ArrayList<>();
+		this.context.addApplicationListener(
+				new ApplicationListener<RefreshScopeRefreshedEvent>() {
+					@Override
+					public void onApplicationEvent(RefreshScopeRefreshedEvent event) {
+						events.add(event);
+					}
+				});
+		this.context.getBean(ContextRefresher.class).refresh();
+		assertEquals(1, events.size());
+		assertEquals(RefreshScopeRefreshedEvent.DEFAULT_NAME, events.get(0).getName());
+	}
+
+	private Set<String> affected(String... keys) {
+		return this.scope.getBeansAffectedBy(set(keys));
+	}
+
+	private static Set<String> set(String... values) {
+		if (values.length == 0) {
+			return Collections.emptySet();
+		}
+		return new HashSet<String>(Arrays.asList(values));
+	}
+
+	public static interface Message {
+
+		String getMessage();
+
+	}
+
+	@Configuration
+	@EnableConfigurationProperties(HolderProperties.class)
+	protected static class TestConfiguration {
+
+		@Bean
+		@org.springframework.cloud.context.config.annotation.RefreshScope
+		public Message foo(@Value("${foo.message:foo}") final String message) {
+			return new Message() {
+				@Override
+				public String getMessage() {
+					return message;
+				}
+			};
+		}
+
+		@Bean
+		@org.springframework.cloud.context.config.annotation.RefreshScope
+		public Message bar(@Value("${bar.message:bar}") final String message) {
+			return new Message() {
+				@Override
+				public String getMessage() {
+					return message;
+				}
+			};
+		}
+
+		@Bean
+		@org.springframework.cloud.context.config.annotation.RefreshScope
+		public ScopedProperties scopedProperties() {
+			return new ScopedProperties();
+		}
+
+		@Bean
+		@org.springframework.cloud.context.config.annotation.RefreshScope
+		public Message holder() {
+			return new Holder();
+		}
+
+	}
+
+	@ConfigurationProperties("scoped")
+	protected static class ScopedProperties {
+
+		private String message = "scoped";
+
+		public String getMessage() {
+			return this.message;
+		}
+
+		public void setMessage(String message) {
+			this.message = message;
+		}
+
+	}
+
+	@ConfigurationProperties("holder")
+	protected static class HolderProperties {
+
+		private String message = "Hello";
+
+		public String getMessage() {
+			return this.message;
+		}
+
+		public void setMessage(String message) {
+			this.message = message;
+		}
+
+	}
+
+	protected static class Holder implements Message {
+
+		@Autowired
+		private HolderProperties properties;
+
+		@Override
+		public String getMessage() {
+			return this.properties.getMessage();
+		}
+
+	}
+
+}
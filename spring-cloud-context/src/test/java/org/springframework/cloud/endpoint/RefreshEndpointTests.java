@@ -22,6 +22,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.After;
 import org.junit.Test;
@@ -108,6 +109,42 @@ public class RefreshEndpointTests {
 		assertTrue("Wrong keys: " + keys, keys.contains("external.message"));
 	}
 
+	@Test
+	public void keysComputedWhenAddedLightweight() throws Exception {
+		this.context = new SpringApplicationBuilder(Empty.class).web(false)
+				.bannerMode(Mode.OFF).properties("spring.cloud.bootstrap.name:none")
+				.run();
+		RefreshScope scope = new RefreshScope();
+		scope.setApplicationContext(this.context);
+		EnvironmentTestUtils.addEnvironment(this.context, "spring.profiles.active=local");
+		ContextRefresher contextRefresher = new ContextRefresher(this.context, scope);
+		contextRefresher.setLightweight(true);
+		RefreshEndpoint endpoint = new RefreshEndpoint(contextRefresher);
+		Collection<String> keys = endpoint.invoke();
+		assertTrue("Wrong keys: " + keys, keys.contains("added"));
+		assertFalse("Wrong keys: " + keys, keys.contains("message"));
+	}
+
+	@Test
+	public void keysComputedWhenLocatedPropertiesChangeLightweight() throws Exception {
+		this.context = new SpringApplicationBuilder(Empty.class).web(false)
+				.bannerMode(Mode.OFF)
+				.properties("spring.cloud.bootstrap.name:none",
+						"spring.cloud.bootstrap.sources="
+								+ CountingPropertySourceLocator.class.getName())
+				.run();
+		RefreshScope scope = new RefreshScope();
+		scope.setApplicationContext(this.context);
+		ContextRefresher contextRefresher = new ContextRefresher(this.context, scope);
+		contextRefresher.setLightweight(true);
+		RefreshEndpoint endpoint = new RefreshEndpoint(contextRefresher);
+		String before = this.context.getEnvironment().getProperty("counted.message");
+		Collection<String> keys = endpoint.invoke();
+		assertTrue("Wrong keys: " + keys, keys.contains("counted.message"));
+		assertFalse(before.equals(
+				this.context.getEnvironment().getProperty("counted.message")));
+	}
+
 	@Test
 	public void springMainSourcesEmptyInRefreshCycle() throws Exception {
 		this.context = new SpringApplicationBuilder(Empty.class).web(false)
@@ -180,6 +217,20 @@ public class RefreshEndpointTests {
 		}
 	}
 
+	@Component
+	protected static class CountingPropertySourceLocator
+			implements PropertySourceLocator {
+
+		private static AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public PropertySource<?> locate(Environment environment) {
+			return new MapPropertySource("counted", Collections.<String, Object> singletonMap(
+					"counted.message", "Count " + count.incrementAndGet()));
+		}
+
+	}
+
 	@Component
 	protected static class ExternalPropertySourceLocator
 			implements PropertySourceLocator {